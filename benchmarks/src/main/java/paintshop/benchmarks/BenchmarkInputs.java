@@ -0,0 +1,70 @@
+package paintshop.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates the batches used by the benchmarks from their shape parameters
+ * @author danielaguado
+ *
+ */
+public final class BenchmarkInputs {
+
+	private static final long SEED = 42L;
+
+	private BenchmarkInputs() {
+	}
+
+	/**
+	 * Generates the preference lines of the customers of a batch,
+	 * each customer likes the configured number of different colours
+	 * and each preference is MATTE with the configured probability
+	 * @param colours the number of colours
+	 * @param customers the number of customers
+	 * @param preferences the number of preferences per customer
+	 * @param matteDensity the probability of a preference being MATTE
+	 * @return the customer lines in the input format
+	 */
+	public static String[] customerLines(final int colours, final int customers, final int preferences, final double matteDensity) {
+		Random random = new Random(SEED);
+		String[] lines = new String[customers];
+		int preferencesPerCustomer = Math.min(preferences, colours);
+		int maxStep = Math.max(1, colours / preferencesPerCustomer);
+		for (int i = 0; i < customers; i++) {
+			StringBuilder line = new StringBuilder().append(preferencesPerCustomer);
+			int colour = random.nextInt(colours);
+			for (int j = 0; j < preferencesPerCustomer; j++) {
+				colour = (colour + 1 + random.nextInt(maxStep)) % colours;
+				line.append(' ').append(colour + 1).append(' ').append(random.nextDouble() < matteDensity ? 1 : 0);
+			}
+			lines[i] = line.toString();
+		}
+		return lines;
+	}
+
+	/**
+	 * Writes an input file with the number of test cases passed as parameter, all of them with the same customers
+	 * @param cases the number of test cases
+	 * @param colours the number of colours
+	 * @param customerLines the preference lines of the customers
+	 * @return the path to the temporary file
+	 * @throws IOException if the file can't be written
+	 */
+	public static Path writeInputFile(final int cases, final int colours, final String[] customerLines) throws IOException {
+		Path file = Files.createTempFile("paintshop-benchmark", ".txt");
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+			writer.println(cases);
+			for (int i = 0; i < cases; i++) {
+				writer.println(colours);
+				writer.println(customerLines.length);
+				for (String line : customerLines) {
+					writer.println(line);
+				}
+			}
+		}
+		return file;
+	}
+}
@@ -0,0 +1,52 @@
+package paintshop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import paintshop.model.Customer;
+
+/**
+ * Measures the creation of the customers of a batch from their preference lines
+ * @author danielaguado
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerParsingBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int colours;
+
+	@Param({ "10000" })
+	public int customers;
+
+	@Param({ "2", "10" })
+	public int preferences;
+
+	@Param({ "0.1", "0.5" })
+	public double matteDensity;
+
+	private String[] lines;
+
+	@Setup
+	public void setup() {
+		lines = BenchmarkInputs.customerLines(colours, customers, preferences, matteDensity);
+	}
+
+	@Benchmark
+	public void parseCustomers(final Blackhole blackhole) {
+		for (String line : lines) {
+			blackhole.consume(new Customer(line));
+		}
+	}
+}
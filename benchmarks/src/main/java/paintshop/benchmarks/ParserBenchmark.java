@@ -0,0 +1,61 @@
+package paintshop.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import paintshop.model.PaintShop;
+
+/**
+ * Measures the parsing of a whole input file into the paint shop model
+ * @author danielaguado
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int colours;
+
+	@Param({ "10000" })
+	public int customers;
+
+	@Param({ "2", "10" })
+	public int preferences;
+
+	@Param({ "0.1", "0.5" })
+	public double matteDensity;
+
+	@Param({ "10" })
+	public int cases;
+
+	private Path inputFile;
+
+	@Setup
+	public void setup() throws IOException {
+		inputFile = BenchmarkInputs.writeInputFile(cases, colours, BenchmarkInputs.customerLines(colours, customers, preferences, matteDensity));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	public PaintShop parseInputFile() {
+		return new PaintShop(inputFile.toString(), inputFile.toString() + ".out");
+	}
+}
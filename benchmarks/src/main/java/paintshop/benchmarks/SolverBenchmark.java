@@ -0,0 +1,52 @@
+package paintshop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import paintshop.model.PaintBatch;
+
+/**
+ * Measures the calculation of the optimal solution of a single batch
+ * @author danielaguado
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolverBenchmark {
+
+	@Param({ "100", "1000" })
+	public int colours;
+
+	@Param({ "100" })
+	public int customers;
+
+	@Param({ "2", "3" })
+	public int preferences;
+
+	@Param({ "0.1" })
+	public double matteDensity;
+
+	private PaintBatch batch;
+
+	@Setup
+	public void setup() {
+		batch = new PaintBatch(colours);
+		for (String line : BenchmarkInputs.customerLines(colours, customers, preferences, matteDensity)) {
+			batch.addCustomer(line);
+		}
+	}
+
+	@Benchmark
+	public String mixColours() {
+		return batch.mixColours();
+	}
+}
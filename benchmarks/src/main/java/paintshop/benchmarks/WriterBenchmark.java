@@ -0,0 +1,67 @@
+package paintshop.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import paintshop.model.PaintShop;
+
+/**
+ * Measures writing the solutions of already solved batches to the output file
+ * @author danielaguado
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WriterBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int colours;
+
+	@Param({ "100" })
+	public int customers;
+
+	@Param({ "2" })
+	public int preferences;
+
+	@Param({ "0.1" })
+	public double matteDensity;
+
+	@Param({ "10" })
+	public int cases;
+
+	private Path inputFile;
+	private Path outputFile;
+	private PaintShop paintShop;
+
+	@Setup
+	public void setup() throws IOException {
+		inputFile = BenchmarkInputs.writeInputFile(cases, colours, BenchmarkInputs.customerLines(colours, customers, preferences, matteDensity));
+		outputFile = Files.createTempFile("paintshop-benchmark", ".out");
+		paintShop = new PaintShop(inputFile.toString(), outputFile.toString());
+		paintShop.generateBatches();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(inputFile);
+		Files.deleteIfExists(outputFile);
+	}
+
+	@Benchmark
+	public void printOutput() {
+		paintShop.printOutput();
+	}
+}
@@ -1,38 +1,216 @@
 package paintshop;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import paintshop.exceptions.InvalidInputException;
 import paintshop.model.PaintShop;
+import paintshop.model.PaintShopOptions;
+import paintshop.model.StreamingPaintShop;
+import paintshop.server.PaintShopClient;
+import paintshop.server.PaintShopServer;
+import paintshop.solver.SearchOrder;
+import paintshop.solver.SolverEngine;
 
 /**
  * Main class for our Paint Shop.
  * A first parameter containing the input file is mandatory
  * The second parameter is optional and it can contain the file name used for the output file
- * Any other paramters will be ignored
+ * Options in the format --name=value can be placed anywhere:
+ * --workers=N solves the batches in parallel with N threads
+ * --search-workers=N searches the solution of each batch with N threads
+ * --solver=auto|linear|backtracking|cdcl sets the engine that solves every batch instead of picking it for each batch
+ * --search-order=file|glossy-first|occurrence|most-constrained sets the order of the backtracking search
+ * --streaming reads, solves and writes one test case at a time
+ * --queue-size=N limits the test cases in memory in the streaming mode
+ * --mmap parses the input file directly from memory
+ * --echo prints the results to the console as well
+ * --cache-size=N reuses the solutions of up to N different batches for repeated batches
+ * --time-limit=MS, --run-time-limit=MS and --node-limit=N limit the search of each batch and of the whole run
+ * --stats writes the statistics of every batch next to the output file
+ * --server=PORT runs a server on the local PORT that solves the input files sent by the clients
+ * --connect=PORT sends the input file to the server on the local PORT instead of solving it in this process
+ * Any other option starting with -- is rejected as an unknown option, extra arguments after the output file are ignored
  * @author danielaguado
  *
  */
 public class PaintShopApp {
 
 	private static final String INPUT_FILE_PATH_MUST_BE_PROVIDED_AS_AN_ARGUMENT = "Input file path must be provided as an argument";
+	private static final String UNKNOWN_OPTION = "Unknown option %s";
+	private static final String INVALID_OPTION_VALUE = "Invalid value for option %s: %s";
+	private static final String OPTION_PREFIX = "--";
+	private static final String WORKERS_OPTION = "workers";
+	private static final String SEARCH_WORKERS_OPTION = "search-workers";
+	private static final String SOLVER_OPTION = "solver";
+	private static final String SEARCH_ORDER_OPTION = "search-order";
+	private static final String STREAMING_OPTION = "streaming";
+	private static final String QUEUE_SIZE_OPTION = "queue-size";
+	private static final String MMAP_OPTION = "mmap";
+	private static final String ECHO_OPTION = "echo";
+	private static final String CACHE_SIZE_OPTION = "cache-size";
+	private static final String TIME_LIMIT_OPTION = "time-limit";
+	private static final String RUN_TIME_LIMIT_OPTION = "run-time-limit";
+	private static final String NODE_LIMIT_OPTION = "node-limit";
+	private static final String STATS_OPTION = "stats";
+	private static final String SERVER_OPTION = "server";
+	private static final String CONNECT_OPTION = "connect";
 
 	public static void main(final String[] args) {
 
-		if (args == null || args.length < 1) {
+		PaintShopOptions options = new PaintShopOptions();
+		List<String> files = parseArguments(args, options);
+
+		if (options.getServerPort() > 0) {
+			try (PaintShopServer server = new PaintShopServer(options.getServerPort(), options)) {
+				server.run();
+			}
+			return;
+		}
+
+		if (files.isEmpty()) {
 			throw new InvalidInputException(INPUT_FILE_PATH_MUST_BE_PROVIDED_AS_AN_ARGUMENT);
 		}
 
-		PaintShop paintShop;
+		//The output file is optional, a file name is generated if it wasn't provided
+		String outputFile = files.size() > 1 ? files.get(1) : null;
+
+		if (options.getConnectPort() > 0) {
+			new PaintShopClient(options.getConnectPort()).solve(files.get(0),
+					outputFile != null ? outputFile : PaintShop.generateFileNameFromTimestamp(), options.isEcho());
+			return;
+		}
 
-		//Only the input file was provided
-		if (args.length == 1) {
-			paintShop = new PaintShop(args[0]);
-		} else {
-			//Both input and output files were provided
-			paintShop = new PaintShop(args[0], args[1]);
+		if (options.isStreaming()) {
+			new StreamingPaintShop(files.get(0), outputFile, options).run();
+			return;
 		}
 
+		PaintShop paintShop = new PaintShop(files.get(0), outputFile, options);
+
 		paintShop.generateBatches();
 		paintShop.printOutput();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Reads the options from the arguments into the options object
+	 * @param args The command line arguments
+	 * @param options The options to fill
+	 * @return the arguments that are not options, i.e. the input and output files
+	 */
+	private static List<String> parseArguments(final String[] args, final PaintShopOptions options) {
+		List<String> files = new ArrayList<>();
+		if (args == null) {
+			return files;
+		}
+
+		for (String arg : args) {
+			if (!arg.startsWith(OPTION_PREFIX)) {
+				files.add(arg);
+				continue;
+			}
+
+			int separator = arg.indexOf('=');
+			String name = separator < 0 ? arg.substring(OPTION_PREFIX.length()) : arg.substring(OPTION_PREFIX.length(), separator);
+			String value = separator < 0 ? null : arg.substring(separator + 1);
+
+			switch (name) {
+			case WORKERS_OPTION:
+				options.setWorkers(parsePositiveInt(arg, value));
+				break;
+			case SEARCH_WORKERS_OPTION:
+				options.setSearchWorkers(parsePositiveInt(arg, value));
+				break;
+			case SOLVER_OPTION:
+				options.setSolver(parseSolver(arg, value));
+				break;
+			case SEARCH_ORDER_OPTION:
+				options.setSearchOrder(parseSearchOrder(arg, value));
+				break;
+			case STREAMING_OPTION:
+				options.setStreaming(true);
+				break;
+			case QUEUE_SIZE_OPTION:
+				options.setQueueSize(parsePositiveInt(arg, value));
+				break;
+			case MMAP_OPTION:
+				options.setMemoryMapped(true);
+				break;
+			case ECHO_OPTION:
+				options.setEcho(true);
+				break;
+			case CACHE_SIZE_OPTION:
+				options.setCacheSize(parsePositiveInt(arg, value));
+				break;
+			case TIME_LIMIT_OPTION:
+				options.setTimeLimitMillis(parsePositiveInt(arg, value));
+				break;
+			case RUN_TIME_LIMIT_OPTION:
+				options.setRunTimeLimitMillis(parsePositiveInt(arg, value));
+				break;
+			case NODE_LIMIT_OPTION:
+				options.setNodeLimit(parsePositiveInt(arg, value));
+				break;
+			case STATS_OPTION:
+				options.setStatistics(true);
+				break;
+			case SERVER_OPTION:
+				options.setServerPort(parsePositiveInt(arg, value));
+				break;
+			case CONNECT_OPTION:
+				options.setConnectPort(parsePositiveInt(arg, value));
+				break;
+			default:
+				throw new InvalidInputException(UNKNOWN_OPTION, arg);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Parses the value of a numeric option
+	 * @param arg The whole option, used for the error message
+	 * @param value The value of the option
+	 * @return the value as an int
+	 */
+	private static int parsePositiveInt(final String arg, final String value) {
+		try {
+			int result = Integer.parseInt(value);
+			if (result > 0) {
+				return result;
+			}
+		} catch (NumberFormatException e) {
+			//Reported below
+		}
+		throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+	}
+
+	/**
+	 * Parses the value of the solver option
+	 * @param arg The whole option, used for the error message
+	 * @param value The name of the engine
+	 * @return the engine
+	 */
+	private static SolverEngine parseSolver(final String arg, final String value) {
+		SolverEngine solver = SolverEngine.fromName(value);
+		if (solver == null) {
+			throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+		}
+		return solver;
+	}
+
+	/**
+	 * Parses the value of the search order option
+	 * @param arg The whole option, used for the error message
+	 * @param value The name of the order
+	 * @return the order
+	 */
+	private static SearchOrder parseSearchOrder(final String arg, final String value) {
+		SearchOrder order = SearchOrder.fromName(value);
+		if (order == null) {
+			throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+		}
+		return order;
+	}
+
+}
@@ -0,0 +1,81 @@
+package paintshop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.io.BinaryFormat;
+import paintshop.io.InputConverter;
+
+/**
+ * Main class that converts input files between the text format and the binary format.
+ * The parameters containing the input file and the output file are mandatory,
+ * by default the input is converted into the other format.
+ * Options in the format --name=value can be placed anywhere:
+ * --to=binary or --to=text the format of the output file
+ * --index writes the index of case offsets into a binary output file
+ * @author danielaguado
+ *
+ */
+public class PaintShopConverter {
+
+	private static final String INPUT_AND_OUTPUT_FILES_MUST_BE_PROVIDED = "Input and output file paths must be provided as arguments";
+	private static final String UNKNOWN_OPTION = "Unknown option %s";
+	private static final String INVALID_OPTION_VALUE = "Invalid value for option %s: %s";
+	private static final String OPTION_PREFIX = "--";
+	private static final String TO_OPTION = "to";
+	private static final String INDEX_OPTION = "index";
+	private static final String BINARY_FORMAT = "binary";
+	private static final String TEXT_FORMAT = "text";
+
+	public static void main(final String[] args) {
+
+		List<String> files = new ArrayList<>();
+		String format = null;
+		boolean index = false;
+
+		if (args != null) {
+			for (String arg : args) {
+				if (!arg.startsWith(OPTION_PREFIX)) {
+					files.add(arg);
+					continue;
+				}
+
+				int separator = arg.indexOf('=');
+				String name = separator < 0 ? arg.substring(OPTION_PREFIX.length()) : arg.substring(OPTION_PREFIX.length(), separator);
+				String value = separator < 0 ? null : arg.substring(separator + 1);
+
+				switch (name) {
+				case TO_OPTION:
+					if (!BINARY_FORMAT.equals(value) && !TEXT_FORMAT.equals(value)) {
+						throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+					}
+					format = value;
+					break;
+				case INDEX_OPTION:
+					index = true;
+					break;
+				default:
+					throw new InvalidInputException(UNKNOWN_OPTION, arg);
+				}
+			}
+		}
+
+		if (files.size() < 2) {
+			throw new InvalidInputException(INPUT_AND_OUTPUT_FILES_MUST_BE_PROVIDED);
+		}
+
+		String inputFile = files.get(0);
+		String outputFile = files.get(1);
+		if (format == null) {
+			format = BinaryFormat.isBinary(inputFile) ? TEXT_FORMAT : BINARY_FORMAT;
+		}
+
+		if (BINARY_FORMAT.equals(format)) {
+			InputConverter.toBinary(inputFile, outputFile, index);
+		} else {
+			InputConverter.toText(inputFile, outputFile);
+		}
+	}
+
+}
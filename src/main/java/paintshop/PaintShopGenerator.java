@@ -0,0 +1,160 @@
+package paintshop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.generator.GeneratorOptions;
+import paintshop.generator.WorkloadGenerator;
+
+/**
+ * Main class that writes synthetic input files for our Paint Shop.
+ * The parameter containing the output file is mandatory
+ * Options in the format --name=value can be placed anywhere:
+ * --cases=N the number of test cases
+ * --colours=N the number of colours of each case
+ * --customers=N the number of customers of each case
+ * --min-preferences=N and --max-preferences=N the range of the number of preferences of each customer
+ * --matte-ratio=X the probability of a preference being MATTE
+ * --impossible makes every case IMPOSSIBLE
+ * --worst-case makes every preference MATTE, the worst case for the backtracking search
+ * --seed=N the seed of the random generator
+ * @author danielaguado
+ *
+ */
+public class PaintShopGenerator {
+
+	private static final String OUTPUT_FILE_PATH_MUST_BE_PROVIDED_AS_AN_ARGUMENT = "Output file path must be provided as an argument";
+	private static final String UNKNOWN_OPTION = "Unknown option %s";
+	private static final String INVALID_OPTION_VALUE = "Invalid value for option %s: %s";
+	private static final String OPTION_PREFIX = "--";
+	private static final String CASES_OPTION = "cases";
+	private static final String COLOURS_OPTION = "colours";
+	private static final String CUSTOMERS_OPTION = "customers";
+	private static final String MIN_PREFERENCES_OPTION = "min-preferences";
+	private static final String MAX_PREFERENCES_OPTION = "max-preferences";
+	private static final String MATTE_RATIO_OPTION = "matte-ratio";
+	private static final String IMPOSSIBLE_OPTION = "impossible";
+	private static final String WORST_CASE_OPTION = "worst-case";
+	private static final String SEED_OPTION = "seed";
+
+	public static void main(final String[] args) {
+
+		GeneratorOptions options = new GeneratorOptions();
+		List<String> files = parseArguments(args, options);
+
+		if (files.isEmpty()) {
+			throw new InvalidInputException(OUTPUT_FILE_PATH_MUST_BE_PROVIDED_AS_AN_ARGUMENT);
+		}
+
+		new WorkloadGenerator(options).generate(files.get(0));
+	}
+
+	/**
+	 * Reads the options from the arguments into the options object
+	 * @param args The command line arguments
+	 * @param options The options to fill
+	 * @return the arguments that are not options, i.e. the output file
+	 */
+	private static List<String> parseArguments(final String[] args, final GeneratorOptions options) {
+		List<String> files = new ArrayList<>();
+		if (args == null) {
+			return files;
+		}
+
+		for (String arg : args) {
+			if (!arg.startsWith(OPTION_PREFIX)) {
+				files.add(arg);
+				continue;
+			}
+
+			int separator = arg.indexOf('=');
+			String name = separator < 0 ? arg.substring(OPTION_PREFIX.length()) : arg.substring(OPTION_PREFIX.length(), separator);
+			String value = separator < 0 ? null : arg.substring(separator + 1);
+
+			switch (name) {
+			case CASES_OPTION:
+				options.setCases(parsePositiveInt(arg, value));
+				break;
+			case COLOURS_OPTION:
+				options.setColours(parsePositiveInt(arg, value));
+				break;
+			case CUSTOMERS_OPTION:
+				options.setCustomers(parsePositiveInt(arg, value));
+				break;
+			case MIN_PREFERENCES_OPTION:
+				options.setMinPreferences(parsePositiveInt(arg, value));
+				break;
+			case MAX_PREFERENCES_OPTION:
+				options.setMaxPreferences(parsePositiveInt(arg, value));
+				break;
+			case MATTE_RATIO_OPTION:
+				options.setMatteRatio(parseRatio(arg, value));
+				break;
+			case IMPOSSIBLE_OPTION:
+				options.setImpossible(true);
+				break;
+			case WORST_CASE_OPTION:
+				options.setWorstCase(true);
+				break;
+			case SEED_OPTION:
+				options.setSeed(parseLong(arg, value));
+				break;
+			default:
+				throw new InvalidInputException(UNKNOWN_OPTION, arg);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Parses the value of a numeric option
+	 * @param arg The whole option, used for the error message
+	 * @param value The value of the option
+	 * @return the value as an int
+	 */
+	private static int parsePositiveInt(final String arg, final String value) {
+		try {
+			int result = Integer.parseInt(value);
+			if (result > 0) {
+				return result;
+			}
+		} catch (NumberFormatException e) {
+			//Reported below
+		}
+		throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+	}
+
+	/**
+	 * Parses the value of an option between 0 and 1
+	 * @param arg The whole option, used for the error message
+	 * @param value The value of the option
+	 * @return the value as a double
+	 */
+	private static double parseRatio(final String arg, final String value) {
+		try {
+			double result = Double.parseDouble(value);
+			if (result >= 0 && result <= 1) {
+				return result;
+			}
+		} catch (NumberFormatException | NullPointerException e) {
+			//Reported below
+		}
+		throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+	}
+
+	/**
+	 * Parses the value of the seed option
+	 * @param arg The whole option, used for the error message
+	 * @param value The value of the option
+	 * @return the value as a long
+	 */
+	private static long parseLong(final String arg, final String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new InvalidInputException(INVALID_OPTION_VALUE, arg, String.valueOf(value));
+		}
+	}
+
+}
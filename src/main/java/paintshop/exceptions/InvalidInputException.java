@@ -11,7 +11,7 @@ public class InvalidInputException extends RuntimeException {
 	private String message;
 
 	public InvalidInputException(final String message, final String... messageParams) {
-		this.message = String.format(message, messageParams);
+		this.message = String.format(message, (Object[]) messageParams);
 	}
 
 	@Override
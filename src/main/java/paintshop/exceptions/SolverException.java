@@ -0,0 +1,21 @@
+package paintshop.exceptions;
+
+/**
+ * Class that represents an error while solving the paint batches
+ * @author danielaguado
+ *
+ */
+public class SolverException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	private String message;
+
+	public SolverException(final String message, final String... messageParams) {
+		this.message = String.format(message, (Object[]) messageParams);
+	}
+
+	@Override
+	public String getMessage() {
+		return message;
+	}
+}
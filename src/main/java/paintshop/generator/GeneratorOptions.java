@@ -0,0 +1,126 @@
+package paintshop.generator;
+
+/**
+ * Class that holds the shape of the input files written by the {@link WorkloadGenerator}
+ * @author danielaguado
+ *
+ */
+public class GeneratorOptions {
+
+	public static final int DEFAULT_CASES = 1;
+	public static final int DEFAULT_COLOURS = 5;
+	public static final int DEFAULT_CUSTOMERS = 5;
+	public static final int DEFAULT_MIN_PREFERENCES = 1;
+	public static final int DEFAULT_MAX_PREFERENCES = 3;
+	public static final double DEFAULT_MATTE_RATIO = 0.3;
+	public static final long DEFAULT_SEED = 1L;
+
+	private int cases = DEFAULT_CASES;
+	private int colours = DEFAULT_COLOURS;
+	private int customers = DEFAULT_CUSTOMERS;
+	private int minPreferences = DEFAULT_MIN_PREFERENCES;
+	private int maxPreferences = DEFAULT_MAX_PREFERENCES;
+	private double matteRatio = DEFAULT_MATTE_RATIO;
+	private boolean impossible;
+	private boolean worstCase;
+	private long seed = DEFAULT_SEED;
+
+	public int getCases() {
+		return cases;
+	}
+
+	public void setCases(int cases) {
+		this.cases = cases;
+	}
+
+	public int getColours() {
+		return colours;
+	}
+
+	public void setColours(int colours) {
+		this.colours = colours;
+	}
+
+	public int getCustomers() {
+		return customers;
+	}
+
+	public void setCustomers(int customers) {
+		this.customers = customers;
+	}
+
+	/**
+	 * The minimum number of preferences of a customer,
+	 * the length of each customer is uniformly distributed between the minimum and the maximum
+	 * @return the minimum number of preferences
+	 */
+	public int getMinPreferences() {
+		return minPreferences;
+	}
+
+	public void setMinPreferences(int minPreferences) {
+		this.minPreferences = minPreferences;
+	}
+
+	/**
+	 * The maximum number of preferences of a customer
+	 * @return the maximum number of preferences
+	 */
+	public int getMaxPreferences() {
+		return maxPreferences;
+	}
+
+	public void setMaxPreferences(int maxPreferences) {
+		this.maxPreferences = maxPreferences;
+	}
+
+	/**
+	 * The probability of a preference being MATTE
+	 * @return a value between 0 and 1
+	 */
+	public double getMatteRatio() {
+		return matteRatio;
+	}
+
+	public void setMatteRatio(double matteRatio) {
+		this.matteRatio = matteRatio;
+	}
+
+	/**
+	 * Whether every case must be IMPOSSIBLE, otherwise every case has a solution
+	 * @return true for IMPOSSIBLE cases
+	 */
+	public boolean isImpossible() {
+		return impossible;
+	}
+
+	public void setImpossible(boolean impossible) {
+		this.impossible = impossible;
+	}
+
+	/**
+	 * Whether the cases are the worst case of the backtracking search:
+	 * every preference is MATTE, so finding the solution with the fewest MATTE colours
+	 * is a minimum hitting set problem that can't be solved in linear time
+	 * @return true for worst cases
+	 */
+	public boolean isWorstCase() {
+		return worstCase;
+	}
+
+	public void setWorstCase(boolean worstCase) {
+		this.worstCase = worstCase;
+	}
+
+	/**
+	 * The seed of the random generator, the same options and seed always write the same file
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+}
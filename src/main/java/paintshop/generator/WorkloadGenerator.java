@@ -0,0 +1,275 @@
+package paintshop.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.exceptions.OutputFileException;
+
+/**
+ * Class that writes synthetic input files in the Paint Shop input format.
+ * Satisfiable cases are built around a hidden solution that every customer likes at least one colour of.
+ * IMPOSSIBLE cases contain a chain of customers that force a colour to be both GLOSSY and MATTE,
+ * spread among the random customers
+ * @author danielaguado
+ *
+ */
+public class WorkloadGenerator {
+
+	private static final String EXCEPTION_OUTPUT_FILE = "Exception writing the generated file %s: %s";
+	private static final String MUST_BE_AT_LEAST_ONE = "The number of %s must be at least one";
+	private static final String INVALID_PREFERENCES_RANGE = "The minimum number of preferences %s can't be greater than the maximum %s";
+	private static final String INVALID_MATTE_RATIO = "The matte ratio must be between 0 and 1 but found %s";
+	private static final String IMPOSSIBLE_NEEDS_TWO_CUSTOMERS = "An IMPOSSIBLE case needs at least 2 customers";
+
+	private static final int GLOSSY = 0;
+	private static final int MATTE = 1;
+
+	private final GeneratorOptions options;
+	private final Random random;
+
+	/**
+	 * Constructor that validates the shape of the cases to generate
+	 * @param options the shape of the cases
+	 */
+	public WorkloadGenerator(final GeneratorOptions options) {
+		validate(options);
+		this.options = options;
+		this.random = new Random(options.getSeed());
+	}
+
+	/**
+	 * Writes the generated cases into the file passed as parameter
+	 * @param outputFile the path to the file
+	 */
+	public void generate(final String outputFile) {
+		try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.US_ASCII)) {
+			generate(writer);
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFile, e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the generated cases
+	 * @param writer the destination of the cases
+	 * @throws IOException if the cases can't be written
+	 */
+	public void generate(final Writer writer) throws IOException {
+		BufferedWriter out = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+		out.write(Integer.toString(options.getCases()));
+		out.newLine();
+		for (int i = 0; i < options.getCases(); i++) {
+			writeCase(out);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes a single case: the number of colours, the number of customers and their preferences
+	 * @param out the destination of the case
+	 * @throws IOException if the case can't be written
+	 */
+	private void writeCase(final BufferedWriter out) throws IOException {
+		int numColours = options.getColours();
+		int numCustomers = options.getCustomers();
+
+		out.write(Integer.toString(numColours));
+		out.newLine();
+		out.write(Integer.toString(numCustomers));
+		out.newLine();
+
+		int[] hiddenSolution = generateHiddenSolution(numColours);
+
+		//The chain of an IMPOSSIBLE case goes through these colours and customers
+		int chainLength = options.isImpossible() ? Math.min(numColours, numCustomers - 1) : 0;
+		int[] chainColours = chainLength > 0 ? sample(numColours, chainLength) : new int[0];
+		boolean[] chainPositions = new boolean[numCustomers];
+		for (int position : sample(numCustomers, chainLength > 0 ? chainLength + 1 : 0)) {
+			chainPositions[position - 1] = true;
+		}
+
+		int maxPreferences = Math.min(options.getMaxPreferences(), numColours);
+		//The middle customers of the chain like two colours, even if the random customers like fewer
+		int[] colours = new int[Math.max(maxPreferences, chainLength > 1 ? 2 : 1)];
+		int[] types = new int[colours.length];
+		StringBuilder line = new StringBuilder();
+		int chainStep = 0;
+
+		for (int i = 0; i < numCustomers; i++) {
+			int numPreferences;
+			if (chainPositions[i]) {
+				numPreferences = chainCustomer(chainColours, chainStep++, colours, types);
+			} else {
+				numPreferences = randomCustomer(hiddenSolution, maxPreferences, colours, types);
+			}
+
+			line.setLength(0);
+			line.append(numPreferences);
+			for (int j = 0; j < numPreferences; j++) {
+				line.append(' ').append(colours[j]).append(' ').append(types[j]);
+			}
+			out.write(line.toString());
+			out.newLine();
+		}
+	}
+
+	/**
+	 * Chooses the finish of every colour in the solution that every random customer will like,
+	 * every colour is MATTE in the worst cases
+	 * @param numColours the number of colours
+	 * @return the finish of each colour, starting at index 1
+	 */
+	private int[] generateHiddenSolution(final int numColours) {
+		int[] hiddenSolution = new int[numColours + 1];
+		for (int colour = 1; colour <= numColours; colour++) {
+			hiddenSolution[colour] = options.isWorstCase() || random.nextDouble() < options.getMatteRatio() ? MATTE : GLOSSY;
+		}
+		return hiddenSolution;
+	}
+
+	/**
+	 * Generates a random customer that likes at least one colour of the hidden solution
+	 * @param hiddenSolution the finish of each colour in the hidden solution
+	 * @param maxPreferences the greatest number of preferences, not greater than the number of colours
+	 * @param colours where the colours of the customer are stored
+	 * @param types where the finishes of the customer are stored
+	 * @return the number of preferences of the customer
+	 */
+	private int randomCustomer(final int[] hiddenSolution, final int maxPreferences, final int[] colours, final int[] types) {
+		int numColours = hiddenSolution.length - 1;
+		int minPreferences = Math.min(options.getMinPreferences(), numColours);
+		int numPreferences = minPreferences + random.nextInt(maxPreferences - minPreferences + 1);
+
+		boolean satisfied = false;
+		sample(numColours, numPreferences, colours);
+		for (int j = 0; j < numPreferences; j++) {
+			types[j] = options.isWorstCase() || random.nextDouble() < options.getMatteRatio() ? MATTE : GLOSSY;
+			satisfied |= types[j] == hiddenSolution[colours[j]];
+		}
+
+		if (!satisfied) {
+			int j = random.nextInt(numPreferences);
+			types[j] = hiddenSolution[colours[j]];
+		}
+		return numPreferences;
+	}
+
+	/**
+	 * Generates the customer of a step of the IMPOSSIBLE chain:
+	 * the first customer only likes the first colour MATTE,
+	 * each following customer likes the previous colour GLOSSY or the next one MATTE
+	 * and the last customer only likes the last colour GLOSSY.
+	 * The customers in the middle of the chain like two colours no matter the maximum number of preferences
+	 * @param chainColours the colours of the chain
+	 * @param step the step of the chain
+	 * @param colours where the colours of the customer are stored
+	 * @param types where the finishes of the customer are stored
+	 * @return the number of preferences of the customer
+	 */
+	private int chainCustomer(final int[] chainColours, final int step, final int[] colours, final int[] types) {
+		if (step == 0) {
+			colours[0] = chainColours[0];
+			types[0] = MATTE;
+			return 1;
+		}
+		if (step == chainColours.length) {
+			colours[0] = chainColours[step - 1];
+			types[0] = GLOSSY;
+			return 1;
+		}
+		colours[0] = chainColours[step - 1];
+		types[0] = GLOSSY;
+		colours[1] = chainColours[step];
+		types[1] = MATTE;
+		return 2;
+	}
+
+	/**
+	 * Chooses different random numbers between 1 and the bound passed as parameter
+	 * @param bound the greatest number
+	 * @param count how many numbers to choose
+	 * @return the numbers
+	 */
+	private int[] sample(final int bound, final int count) {
+		int[] result = new int[count];
+		sample(bound, count, result);
+		return result;
+	}
+
+	/**
+	 * Chooses different random numbers between 1 and the bound passed as parameter,
+	 * the count is small compared to the bound so the repeated numbers are just discarded
+	 * @param bound the greatest number
+	 * @param count how many numbers to choose
+	 * @param result where the numbers are stored
+	 */
+	private void sample(final int bound, final int count, final int[] result) {
+		if (count * 2 > bound) {
+			//Partial shuffle of every number when most of them are chosen
+			int[] all = new int[bound];
+			for (int i = 0; i < bound; i++) {
+				all[i] = i + 1;
+			}
+			for (int i = 0; i < count; i++) {
+				int j = i + random.nextInt(bound - i);
+				int swap = all[i];
+				all[i] = all[j];
+				all[j] = swap;
+				result[i] = all[i];
+			}
+			return;
+		}
+
+		for (int i = 0; i < count; i++) {
+			int candidate;
+			do {
+				candidate = 1 + random.nextInt(bound);
+			} while (contains(result, i, candidate));
+			result[i] = candidate;
+		}
+	}
+
+	private static boolean contains(final int[] values, final int length, final int value) {
+		for (int i = 0; i < length; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Validates the shape of the cases
+	 * @param options the shape of the cases
+	 */
+	private static void validate(final GeneratorOptions options) {
+		if (options.getCases() < 1) {
+			throw new InvalidInputException(MUST_BE_AT_LEAST_ONE, "cases");
+		}
+		if (options.getColours() < 1) {
+			throw new InvalidInputException(MUST_BE_AT_LEAST_ONE, "colours");
+		}
+		if (options.getCustomers() < 1) {
+			throw new InvalidInputException(MUST_BE_AT_LEAST_ONE, "customers");
+		}
+		if (options.getMinPreferences() < 1) {
+			throw new InvalidInputException(MUST_BE_AT_LEAST_ONE, "preferences");
+		}
+		if (options.getMinPreferences() > options.getMaxPreferences()) {
+			throw new InvalidInputException(INVALID_PREFERENCES_RANGE, String.valueOf(options.getMinPreferences()),
+					String.valueOf(options.getMaxPreferences()));
+		}
+		if (!(options.getMatteRatio() >= 0 && options.getMatteRatio() <= 1)) {
+			throw new InvalidInputException(INVALID_MATTE_RATIO, String.valueOf(options.getMatteRatio()));
+		}
+		if (options.isImpossible() && options.getCustomers() < 2) {
+			throw new InvalidInputException(IMPOSSIBLE_NEEDS_TWO_CUSTOMERS);
+		}
+	}
+}
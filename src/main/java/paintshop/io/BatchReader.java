@@ -0,0 +1,33 @@
+package paintshop.io;
+
+import paintshop.model.PaintBatch;
+
+/**
+ * Reader that parses the test cases of an input file one at a time,
+ * so they can be solved while the rest of the file is still being read
+ * @author danielaguado
+ *
+ */
+public interface BatchReader extends AutoCloseable {
+
+	/**
+	 * The number of test cases declared at the beginning of the input
+	 * @return the number of test cases
+	 */
+	int getNumCases();
+
+	/**
+	 * Determines if there are test cases left to read
+	 * @return true if nextBatch can be called
+	 */
+	boolean hasNextBatch();
+
+	/**
+	 * Parses and validates the next test case
+	 * @return the batch with its customers
+	 */
+	PaintBatch nextBatch();
+
+	@Override
+	void close();
+}
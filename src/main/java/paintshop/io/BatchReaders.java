@@ -0,0 +1,56 @@
+package paintshop.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.model.PaintShopOptions;
+
+/**
+ * Factory of the readers for the input files
+ * @author danielaguado
+ *
+ */
+public final class BatchReaders {
+
+	private static final String EXCEPTION_READING_INPUT = "Exception reading the input %s: %s";
+
+	private BatchReaders() {
+	}
+
+	/**
+	 * Opens a reader for the input file according to its format and the options of the run,
+	 * files starting with the header of the {@link BinaryFormat} are read as binary and any other file as text
+	 * @param inputFile The path to the input file
+	 * @param options The options of the run
+	 * @return the reader
+	 */
+	public static BatchReader open(final String inputFile, final PaintShopOptions options) {
+		if (BinaryFormat.isBinary(inputFile)) {
+			return new BinaryBatchReader(inputFile);
+		}
+		return new TextBatchReader(inputFile, options.isMemoryMapped());
+	}
+
+	/**
+	 * Opens a reader for an input stream, i.e. a connection, according to its format
+	 * @param input The input, it's closed with the reader
+	 * @param description The description of the input for the error messages
+	 * @return the reader
+	 */
+	public static BatchReader open(final InputStream input, final String description) {
+		InputStream buffered = input.markSupported() ? input : new BufferedInputStream(input);
+		boolean binary;
+		try {
+			binary = BinaryFormat.isBinary(buffered);
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT, description, e.getMessage());
+		}
+		if (binary) {
+			return new BinaryBatchReader(Channels.newChannel(buffered), description);
+		}
+		return new TextBatchReader(Channels.newChannel(buffered));
+	}
+}
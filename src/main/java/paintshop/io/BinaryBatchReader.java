@@ -0,0 +1,363 @@
+package paintshop.io;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.model.PaintBatch;
+
+/**
+ * Reader for the {@link BinaryFormat}. Each case is length prefixed, so its bytes are loaded at once
+ * and decoded from memory without any text parsing.
+ * If the file has an index of case offsets, any case can be read directly with readCase.
+ * The input can also be a channel, i.e. a connection, that is only read sequentially
+ * @author danielaguado
+ *
+ */
+public class BinaryBatchReader implements BatchReader {
+
+	private static final String EXCEPTION_READING_INPUT_FILE = "Exception reading the input file %s";
+	private static final String NOT_A_BINARY_INPUT = "The input file %s isn't in the binary format";
+	private static final String UNEXPECTED_END_OF_INPUT = "Unexpected end of the binary input file";
+	private static final String INVALID_VARINT = "Invalid variable length integer in the binary input file";
+	private static final String INVALID_CASE_LENGTH = "The content of case %s doesn't match its length of %s bytes";
+	private static final String NO_CASE_INDEX = "The binary input file has no index of cases";
+	private static final String CASE_INDEX_NEEDS_A_FILE = "The cases of the binary input %s can only be read in order";
+	private static final String CASE_DOESNT_EXIST = "Case %s doesn't exist, the input has %s cases";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int INITIAL_CUSTOMER_CAPACITY = 64;
+
+	private String inputFile;
+	private ReadableByteChannel channel;
+	//The same channel when the input is a file, null for any other channel whose size isn't known
+	private FileChannel fileChannel;
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private ByteBuffer caseBuffer;
+	private boolean indexed;
+	private int numCases;
+	private int casesRead;
+
+	//Scratch array with the values of a customer in the same layout as a line of the text format
+	private int[] customerValues = new int[INITIAL_CUSTOMER_CAPACITY];
+
+	/**
+	 * Constructor that opens the input file and reads its header
+	 * @param inputFile The path to the input file
+	 */
+	public BinaryBatchReader(final String inputFile) {
+		this.inputFile = inputFile;
+		try {
+			this.fileChannel = new FileInputStream(inputFile).getChannel();
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+		this.channel = fileChannel;
+		readHeaderOrClose();
+	}
+
+	/**
+	 * Constructor that reads the input from a channel, i.e. a connection, and reads its header
+	 * @param channel The channel with the input, it's closed with the reader
+	 * @param description The description of the input for the error messages
+	 */
+	public BinaryBatchReader(final ReadableByteChannel channel, final String description) {
+		this.inputFile = description;
+		this.channel = channel;
+		readHeaderOrClose();
+	}
+
+	/**
+	 * Reads the header of the input, closing the input if it isn't valid
+	 */
+	private void readHeaderOrClose() {
+		buffer.flip();
+		try {
+			readHeader();
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the MAGIC bytes, the flags and the number of cases
+	 */
+	private void readHeader() {
+		for (byte expected : BinaryFormat.MAGIC) {
+			if (readByte() != expected) {
+				throw new InvalidInputException(NOT_A_BINARY_INPUT, inputFile);
+			}
+		}
+		indexed = (readByte() & BinaryFormat.INDEX_FLAG) != 0;
+		numCases = readVarint();
+	}
+
+	@Override
+	public int getNumCases() {
+		return numCases;
+	}
+
+	@Override
+	public boolean hasNextBatch() {
+		return casesRead < numCases;
+	}
+
+	@Override
+	public PaintBatch nextBatch() {
+		int length = readVarint();
+		casesRead++;
+		return decodeCase(casesRead, readCaseBytes(length), length);
+	}
+
+	/**
+	 * Reads a case through the index of the file, without reading the previous cases
+	 * and without changing the position of nextBatch
+	 * @param caseNumber The number of the case, starting at 1
+	 * @return the batch with its customers
+	 */
+	public PaintBatch readCase(final int caseNumber) {
+		if (fileChannel == null) {
+			throw new InvalidInputException(CASE_INDEX_NEEDS_A_FILE, inputFile);
+		}
+		if (!indexed) {
+			throw new InvalidInputException(NO_CASE_INDEX);
+		}
+		if (caseNumber < 1 || caseNumber > numCases) {
+			throw new InvalidInputException(CASE_DOESNT_EXIST, String.valueOf(caseNumber), String.valueOf(numCases));
+		}
+
+		try {
+			long indexPosition = readLongAt(fileChannel.size() - BinaryFormat.OFFSET_BYTES);
+			long casePosition = readLongAt(indexPosition + (long) (caseNumber - 1) * BinaryFormat.OFFSET_BYTES);
+
+			ByteBuffer prefix = readAt(casePosition, BinaryFormat.MAX_VARINT_BYTES);
+			int length = decodeVarint(prefix);
+			ByteBuffer body = readAt(casePosition + prefix.position(), length);
+			if (body.remaining() < length) {
+				throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+			}
+			return decodeCase(caseNumber, body, length);
+		} catch (BufferUnderflowException e) {
+			throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+	}
+
+	/**
+	 * Decodes and validates a case
+	 * @param caseNumber The number of the case, for the error messages
+	 * @param body The bytes of the case
+	 * @param length The length declared for the case
+	 * @return the batch
+	 */
+	private PaintBatch decodeCase(final int caseNumber, final ByteBuffer body, final int length) {
+		try {
+			int numColours = decodeVarint(body);
+			TextBatchReader.validateNumColours(numColours);
+			int numCustomers = decodeVarint(body);
+
+			PaintBatch batch = new PaintBatch(numColours);
+			for (int i = 0; i < numCustomers; i++) {
+				int numValues = decodeCustomer(body);
+				batch.addCustomer(customerValues, numValues);
+			}
+			if (body.hasRemaining()) {
+				throw new InvalidInputException(INVALID_CASE_LENGTH, String.valueOf(caseNumber), String.valueOf(length));
+			}
+
+			TextBatchReader.validateCustomersForBatchRequest(numCustomers, batch);
+			batch.getPreferences().trimToSize();
+			return batch;
+		} catch (BufferUnderflowException e) {
+			throw new InvalidInputException(INVALID_CASE_LENGTH, String.valueOf(caseNumber), String.valueOf(length));
+		}
+	}
+
+	/**
+	 * Decodes the preferences of a customer into the values of a line of the text format
+	 * @param body The bytes of the case
+	 * @return the number of values
+	 */
+	private int decodeCustomer(final ByteBuffer body) {
+		int numPreferences = decodeVarint(body);
+		int numValues = 1 + numPreferences * 2;
+		if (numValues > customerValues.length) {
+			//The preferences can't take less than a byte each, more than the case has can't be valid
+			if (numPreferences > body.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			customerValues = Arrays.copyOf(customerValues, Math.max(numValues, customerValues.length * 2));
+		}
+
+		customerValues[0] = numPreferences;
+		for (int j = 1; j < numValues; j += 2) {
+			int preference = decodeVarint(body);
+			customerValues[j] = preference >>> 1;
+			customerValues[j + 1] = preference & 1;
+		}
+		return numValues;
+	}
+
+	/**
+	 * Decodes a variable length integer from a buffer
+	 * @param bytes The buffer
+	 * @return the value
+	 */
+	private static int decodeVarint(final ByteBuffer bytes) {
+		int value = 0;
+		for (int shift = 0; shift < BinaryFormat.MAX_VARINT_BYTES * 7; shift += 7) {
+			int b = bytes.get() & 0xFF;
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					break;
+				}
+				return value;
+			}
+		}
+		throw new InvalidInputException(INVALID_VARINT);
+	}
+
+	/**
+	 * Reads a variable length integer from the input
+	 * @return the value
+	 */
+	private int readVarint() {
+		fill(BinaryFormat.MAX_VARINT_BYTES);
+		try {
+			return decodeVarint(buffer);
+		} catch (BufferUnderflowException e) {
+			throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+		}
+	}
+
+	private int readByte() {
+		fill(1);
+		if (!buffer.hasRemaining()) {
+			throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * Reads more of the input into the buffer until it has the bytes requested or the input ends
+	 * @param bytes The number of bytes
+	 */
+	private void fill(final int bytes) {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		buffer.compact();
+		int read = 0;
+		while (buffer.position() < bytes && read >= 0) {
+			read = readInto(buffer);
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Returns the bytes of the next case, straight from the read buffer if they are already there
+	 * @param length The length of the case
+	 * @return a buffer with the bytes of the case
+	 */
+	private ByteBuffer readCaseBytes(final int length) {
+		if (buffer.remaining() >= length) {
+			ByteBuffer body = buffer.slice();
+			body.limit(length);
+			buffer.position(buffer.position() + length);
+			return body;
+		}
+
+		//Check the length against the file before allocating a buffer for it, it may come from a corrupt file
+		if (length < 0 || length - buffer.remaining() > remainingBytes()) {
+			throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+		}
+		//The size of any other channel isn't known, so the buffer only grows as the bytes of the case arrive
+		int capacity = fileChannel != null ? length : Math.min(length, BUFFER_SIZE);
+		if (caseBuffer == null || caseBuffer.capacity() < capacity) {
+			caseBuffer = ByteBuffer.allocate(Math.max(capacity, BUFFER_SIZE));
+		}
+		caseBuffer.clear();
+		caseBuffer.limit(Math.min(length, caseBuffer.capacity()));
+		caseBuffer.put(buffer);
+		while (caseBuffer.position() < length) {
+			if (!caseBuffer.hasRemaining()) {
+				ByteBuffer larger = ByteBuffer.allocate((int) Math.min(length, caseBuffer.capacity() * 2L));
+				caseBuffer.flip();
+				caseBuffer = larger.put(caseBuffer);
+			}
+			if (readInto(caseBuffer) < 0) {
+				throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+			}
+		}
+		caseBuffer.flip();
+		return caseBuffer;
+	}
+
+	/**
+	 * The number of bytes of the file that haven't been read into the buffer yet
+	 * @return the number of bytes, or Long.MAX_VALUE if the input isn't a file
+	 */
+	private long remainingBytes() {
+		if (fileChannel == null) {
+			return Long.MAX_VALUE;
+		}
+		try {
+			return fileChannel.size() - fileChannel.position();
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+	}
+
+	private int readInto(final ByteBuffer destination) {
+		try {
+			return channel.read(destination);
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads bytes at a position of the file, up to the end of the file.
+	 * The buffer is never larger than the rest of the file, so a corrupt length can't allocate more
+	 * @param position The position
+	 * @param length The number of bytes
+	 * @return a buffer with the bytes read
+	 * @throws IOException if the file can't be read
+	 */
+	private ByteBuffer readAt(final long position, final int length) throws IOException {
+		if (position < 0 || length < 0) {
+			throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+		}
+		ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(length, Math.max(fileChannel.size() - position, 0)));
+		while (bytes.hasRemaining() && fileChannel.read(bytes, position + bytes.position()) >= 0) {
+			//Keep reading until the buffer is full or the end of the file
+		}
+		bytes.flip();
+		return bytes;
+	}
+
+	private long readLongAt(final long position) throws IOException {
+		ByteBuffer bytes = readAt(position, BinaryFormat.OFFSET_BYTES);
+		if (bytes.remaining() < BinaryFormat.OFFSET_BYTES) {
+			throw new InvalidInputException(UNEXPECTED_END_OF_INPUT);
+		}
+		return bytes.getLong();
+	}
+}
@@ -0,0 +1,155 @@
+package paintshop.io;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import paintshop.exceptions.OutputFileException;
+import paintshop.model.CustomerPreferences;
+import paintshop.model.PaintBatch;
+
+/**
+ * Writer of input files in the {@link BinaryFormat}, optionally with the index of case offsets
+ * that allows reading any case directly
+ * @author danielaguado
+ *
+ */
+public class BinaryBatchWriter implements AutoCloseable {
+
+	private static final String EXCEPTION_OUTPUT_FILE = "Error writing the output file %s, the exception was: %s";
+	private static final String INCORRECT_NUMBER_OF_CASES = "Expected %s cases to write to %s but found %s";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int INITIAL_CASE_CAPACITY = 1 << 10;
+
+	private String outputFile;
+	private OutputStream output;
+	private int numCases;
+	private long[] caseOffsets;
+	private int casesWritten;
+	private long position;
+
+	//Scratch array where each case is encoded before writing its length
+	private byte[] caseBytes = new byte[INITIAL_CASE_CAPACITY];
+	private int caseLength;
+
+	/**
+	 * Constructor that creates the output file and writes its header
+	 * @param outputFile The output file path
+	 * @param numCases The number of cases that will be written
+	 * @param index true to write the index of case offsets at the end of the file
+	 */
+	public BinaryBatchWriter(final String outputFile, final int numCases, final boolean index) {
+		this.outputFile = outputFile;
+		this.numCases = numCases;
+		this.caseOffsets = index ? new long[numCases] : null;
+		try {
+			this.output = new BufferedOutputStream(new FileOutputStream(outputFile), BUFFER_SIZE);
+			output.write(BinaryFormat.MAGIC);
+			output.write(index ? BinaryFormat.INDEX_FLAG : 0);
+			position = BinaryFormat.MAGIC.length + 1;
+			writeVarint(numCases);
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFile, e.getMessage());
+		}
+	}
+
+	/**
+	 * Encodes a batch and writes it as the next case
+	 * @param batch The batch with its customers
+	 */
+	public void writeCase(final PaintBatch batch) {
+		if (casesWritten == numCases) {
+			throw new OutputFileException(INCORRECT_NUMBER_OF_CASES, String.valueOf(numCases), outputFile,
+					String.valueOf(casesWritten + 1));
+		}
+
+		caseLength = 0;
+		putVarint(batch.getNumColours());
+		CustomerPreferences preferences = batch.getPreferences();
+		putVarint(preferences == null ? 0 : preferences.size());
+		if (preferences != null) {
+			int[] offsets = preferences.getOffsets();
+			int[] literals = preferences.getLiterals();
+			//The preferences are already stored as colour * 2 + finish
+			for (int i = 0; i < preferences.size(); i++) {
+				putVarint(offsets[i + 1] - offsets[i]);
+				for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+					putVarint(literals[k]);
+				}
+			}
+		}
+
+		try {
+			if (caseOffsets != null) {
+				caseOffsets[casesWritten] = position;
+			}
+			writeVarint(caseLength);
+			output.write(caseBytes, 0, caseLength);
+			position += caseLength;
+			casesWritten++;
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFile, e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the index, if requested, and closes the file
+	 */
+	@Override
+	public void close() {
+		try {
+			if (casesWritten != numCases) {
+				throw new OutputFileException(INCORRECT_NUMBER_OF_CASES, String.valueOf(numCases), outputFile,
+						String.valueOf(casesWritten));
+			}
+			if (caseOffsets != null) {
+				long indexPosition = position;
+				for (long offset : caseOffsets) {
+					writeLong(offset);
+				}
+				writeLong(indexPosition);
+			}
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFile, e.getMessage());
+		} finally {
+			try {
+				output.close();
+			} catch (IOException e) {
+				throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFile, e.getMessage());
+			}
+		}
+	}
+
+	private void putVarint(final int value) {
+		if (caseLength + BinaryFormat.MAX_VARINT_BYTES > caseBytes.length) {
+			caseBytes = Arrays.copyOf(caseBytes, caseBytes.length * 2);
+		}
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			caseBytes[caseLength++] = (byte) (remaining & 0x7F | 0x80);
+			remaining >>>= 7;
+		}
+		caseBytes[caseLength++] = (byte) remaining;
+	}
+
+	private void writeVarint(final int value) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			output.write(remaining & 0x7F | 0x80);
+			remaining >>>= 7;
+			position++;
+		}
+		output.write(remaining);
+		position++;
+	}
+
+	private void writeLong(final long value) throws IOException {
+		for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+			output.write((int) (value >>> shift));
+		}
+		position += BinaryFormat.OFFSET_BYTES;
+	}
+}
@@ -0,0 +1,71 @@
+package paintshop.io;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Constants of the binary input format, written by {@link BinaryBatchWriter} and read by {@link BinaryBatchReader}.
+ * Every number is an unsigned variable length integer (7 bits per byte, the high bit set when more bytes follow).
+ * The file starts with the MAGIC bytes, a flags byte and the number of cases.
+ * Each case is its length in bytes followed by the number of colours, the number of customers
+ * and, for each customer, the number of preferences and each preference as colour * 2 + finish.
+ * With the INDEX_FLAG, the cases are followed by the 8 byte offset of each case
+ * and the file ends with the 8 byte offset of that index
+ * @author danielaguado
+ *
+ */
+public final class BinaryFormat {
+
+	/** The first byte can't start a line of the text format, so both formats can be told apart */
+	static final byte[] MAGIC = { 'P', 'S', 'B', 1 };
+	static final int INDEX_FLAG = 1;
+	static final int OFFSET_BYTES = Long.BYTES;
+	static final int MAX_VARINT_BYTES = 5;
+
+	private BinaryFormat() {
+	}
+
+	/**
+	 * Determines if a file is in the binary format by checking its first bytes
+	 * @param inputFile The path to the file
+	 * @return true if the file starts with the MAGIC bytes, false otherwise or if it can't be read
+	 */
+	public static boolean isBinary(final String inputFile) {
+		try (InputStream input = new FileInputStream(inputFile)) {
+			return startsWithMagic(input);
+		} catch (IOException e) {
+			//The text reader reports the error opening the file
+			return false;
+		}
+	}
+
+	/**
+	 * Determines if an input is in the binary format by checking its first bytes, without consuming them
+	 * @param input The input, it must support mark and reset
+	 * @return true if the input starts with the MAGIC bytes
+	 * @throws IOException if the input can't be read
+	 */
+	public static boolean isBinary(final InputStream input) throws IOException {
+		input.mark(MAGIC.length);
+		try {
+			return startsWithMagic(input);
+		} finally {
+			input.reset();
+		}
+	}
+
+	private static boolean startsWithMagic(final InputStream input) throws IOException {
+		byte[] header = new byte[MAGIC.length];
+		int read = 0;
+		while (read < header.length) {
+			int n = input.read(header, read, header.length - read);
+			if (n < 0) {
+				return false;
+			}
+			read += n;
+		}
+		return Arrays.equals(header, MAGIC);
+	}
+}
@@ -0,0 +1,236 @@
+package paintshop.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import paintshop.exceptions.InvalidInputException;
+
+/**
+ * Line based tokenizer that reads integers straight from the bytes of the input,
+ * without creating a String for every line or token.
+ * Lines can end with \n, \r\n or \r, the values in a line are separated by spaces or tabs.
+ * The bytes of the current line are only turned into a String to report an invalid line.
+ * Subclasses can provide the bytes in a different way by overriding refill
+ * @author danielaguado
+ *
+ */
+public class ByteTokenizer implements AutoCloseable {
+
+	private static final String REACHED_END_OF_FILE = "Expected reading an Integer, reached the end of the file";
+	private static final String EXPECTED_INTEGER = "Expected reading an Integer, found: %s";
+	private static final String EXCEPTION_READING_INPUT = "Exception reading the input: %s";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int END_OF_INPUT = -1;
+	private static final int INITIAL_LINE_CAPACITY = 64;
+
+	private ReadableByteChannel channel;
+	protected ByteBuffer buffer;
+	private boolean skipLineFeed;
+
+	//Scratch arrays reused for every line
+	private byte[] lineBytes = new byte[INITIAL_LINE_CAPACITY];
+	private int lineLength;
+	private int[] lineValues = new int[INITIAL_LINE_CAPACITY];
+
+	/**
+	 * Constructor that reads the input from a channel
+	 * @param channel The channel with the input
+	 */
+	public ByteTokenizer(final ReadableByteChannel channel) {
+		this(channel, ByteBuffer.allocate(BUFFER_SIZE));
+	}
+
+	/**
+	 * Constructor for the subclasses that provide their own buffer, which starts empty
+	 * @param channel The channel with the input
+	 * @param buffer The initial buffer, refilled by refill
+	 */
+	protected ByteTokenizer(final ReadableByteChannel channel, final ByteBuffer buffer) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.buffer.flip();
+	}
+
+	/**
+	 * Reads a line that must contain a single non negative integer and nothing else
+	 * @return the integer
+	 */
+	public int readIntLine() {
+		int b = startLine();
+		if (b == END_OF_INPUT) {
+			throw new InvalidInputException(REACHED_END_OF_FILE);
+		}
+
+		long value = 0;
+		boolean numeric = true;
+		while (!isEndOfLine(b)) {
+			appendToLine(b);
+			if (numeric && b >= '0' && b <= '9') {
+				value = value * 10 + (b - '0');
+				numeric = value <= Integer.MAX_VALUE;
+			} else {
+				numeric = false;
+			}
+			b = read();
+		}
+		endLine(b);
+
+		if (!numeric || lineLength == 0) {
+			throw new InvalidInputException(EXPECTED_INTEGER, currentLine());
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads a line of integers separated by spaces or tabs,
+	 * the values can be retrieved with getLineValues
+	 * @return the number of integers in the line, or -1 if the end of the input was reached
+	 */
+	public int readIntsLine() {
+		int b = startLine();
+		if (b == END_OF_INPUT) {
+			return END_OF_INPUT;
+		}
+
+		int numValues = 0;
+		boolean inToken = false;
+		boolean negative = false;
+		boolean hasDigits = false;
+		boolean valid = true;
+		long value = 0;
+
+		while (!isEndOfLine(b)) {
+			appendToLine(b);
+			if (b == ' ' || b == '\t') {
+				if (inToken) {
+					//A sign must be followed by digits
+					valid &= hasDigits;
+					numValues = addLineValue(numValues, negative ? -value : value);
+					inToken = false;
+				}
+			} else if (b >= '0' && b <= '9') {
+				value = inToken ? value * 10 + (b - '0') : b - '0';
+				negative = negative && inToken;
+				inToken = true;
+				hasDigits = true;
+				valid &= value <= Integer.MAX_VALUE;
+			} else if (b == '-' && !inToken) {
+				negative = true;
+				hasDigits = false;
+				value = 0;
+				inToken = true;
+			} else {
+				valid = false;
+			}
+			b = read();
+		}
+		endLine(b);
+
+		if (inToken) {
+			valid &= hasDigits;
+			numValues = addLineValue(numValues, negative ? -value : value);
+		}
+		if (!valid) {
+			throw new InvalidInputException(EXPECTED_INTEGER, currentLine());
+		}
+		return numValues;
+	}
+
+	/**
+	 * The integers read by the last call to readIntsLine, the array is reused for every line
+	 * @return the integers, only the positions up to the number returned by readIntsLine are valid
+	 */
+	public int[] getLineValues() {
+		return lineValues;
+	}
+
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw readingException(e);
+		}
+	}
+
+	private int addLineValue(final int numValues, final long value) {
+		if (numValues == lineValues.length) {
+			lineValues = Arrays.copyOf(lineValues, numValues * 2);
+		}
+		lineValues[numValues] = (int) value;
+		return numValues + 1;
+	}
+
+	private void appendToLine(final int b) {
+		if (lineLength == lineBytes.length) {
+			lineBytes = Arrays.copyOf(lineBytes, lineLength * 2);
+		}
+		lineBytes[lineLength++] = (byte) b;
+	}
+
+	private String currentLine() {
+		return new String(lineBytes, 0, lineLength, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the first byte of a line, skipping the \n of a previous \r\n
+	 * @return the first byte or END_OF_INPUT
+	 */
+	private int startLine() {
+		lineLength = 0;
+		int b = read();
+		if (skipLineFeed) {
+			skipLineFeed = false;
+			if (b == '\n') {
+				b = read();
+			}
+		}
+		return b;
+	}
+
+	private void endLine(final int b) {
+		skipLineFeed = b == '\r';
+	}
+
+	private boolean isEndOfLine(final int b) {
+		return b == '\n' || b == '\r' || b == END_OF_INPUT;
+	}
+
+	private int read() {
+		if (!buffer.hasRemaining() && !refill()) {
+			return END_OF_INPUT;
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * Reads the next block of the input into the buffer
+	 * @return false if the end of the input was reached
+	 */
+	protected boolean refill() {
+		try {
+			buffer.clear();
+			int read;
+			do {
+				read = channel.read(buffer);
+			} while (read == 0);
+			buffer.flip();
+			return read > 0;
+		} catch (IOException e) {
+			throw readingException(e);
+		}
+	}
+
+	/**
+	 * Creates the exception thrown when the input can't be read
+	 * @param e the cause
+	 * @return the exception
+	 */
+	protected InvalidInputException readingException(final IOException e) {
+		return new InvalidInputException(EXCEPTION_READING_INPUT, e.getMessage());
+	}
+}
@@ -0,0 +1,76 @@
+package paintshop.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import paintshop.exceptions.OutputFileException;
+import paintshop.model.CustomerPreferences;
+import paintshop.model.PaintBatch;
+import paintshop.solver.Literals;
+
+/**
+ * Converts input files between the text format and the {@link BinaryFormat}.
+ * The cases are validated while they are read, so only valid inputs are converted
+ * @author danielaguado
+ *
+ */
+public final class InputConverter {
+
+	private static final String EXCEPTION_OUTPUT_FILE = "Error writing the output file %s, the exception was: %s";
+
+	private InputConverter() {
+	}
+
+	/**
+	 * Converts a text input file into the binary format
+	 * @param textFile The path to the text input file
+	 * @param binaryFile The path to the binary file to write
+	 * @param index true to write the index of case offsets
+	 */
+	public static void toBinary(final String textFile, final String binaryFile, final boolean index) {
+		try (TextBatchReader reader = new TextBatchReader(textFile);
+				BinaryBatchWriter writer = new BinaryBatchWriter(binaryFile, reader.getNumCases(), index)) {
+			while (reader.hasNextBatch()) {
+				writer.writeCase(reader.nextBatch());
+			}
+		}
+	}
+
+	/**
+	 * Converts a binary input file into the text format
+	 * @param binaryFile The path to the binary input file
+	 * @param textFile The path to the text file to write
+	 */
+	public static void toText(final String binaryFile, final String textFile) {
+		try (BinaryBatchReader reader = new BinaryBatchReader(binaryFile);
+				BufferedWriter out = Files.newBufferedWriter(Paths.get(textFile), StandardCharsets.US_ASCII)) {
+			out.write(Integer.toString(reader.getNumCases()));
+			out.newLine();
+			StringBuilder line = new StringBuilder();
+			while (reader.hasNextBatch()) {
+				PaintBatch batch = reader.nextBatch();
+				out.write(Integer.toString(batch.getNumColours()));
+				out.newLine();
+				CustomerPreferences preferences = batch.getPreferences();
+				int[] offsets = preferences.getOffsets();
+				int[] literals = preferences.getLiterals();
+				out.write(Integer.toString(preferences.size()));
+				out.newLine();
+				for (int i = 0; i < preferences.size(); i++) {
+					line.setLength(0);
+					line.append(offsets[i + 1] - offsets[i]);
+					for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+						line.append(' ').append(Literals.colour(literals[k])).append(' ').append(Literals.type(literals[k]));
+					}
+					out.write(line.toString());
+					out.newLine();
+				}
+			}
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, textFile, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package paintshop.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Tokenizer that reads the input file through memory mapped regions instead of copying it
+ * into a heap buffer, so the bytes come straight from the OS page cache.
+ * A single mapping can't be larger than 2 GB, so bigger files are mapped in consecutive chunks,
+ * each one replacing the previous one once all its bytes have been read
+ * @author danielaguado
+ *
+ */
+public class MappedByteTokenizer extends ByteTokenizer {
+
+	private static final long CHUNK_SIZE = 1L << 30;
+
+	private FileChannel fileChannel;
+	private long position;
+	private long chunkSize;
+
+	/**
+	 * Constructor that maps the file in chunks of 1 GB
+	 * @param fileChannel The channel of the input file
+	 */
+	public MappedByteTokenizer(final FileChannel fileChannel) {
+		this(fileChannel, CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor that maps the file in chunks of the size passed as parameter
+	 * @param fileChannel The channel of the input file
+	 * @param chunkSize The size of each mapped region
+	 */
+	MappedByteTokenizer(final FileChannel fileChannel, final long chunkSize) {
+		//Every chunk is mapped by refill, so no heap buffer is needed
+		super(fileChannel, ByteBuffer.allocate(0));
+		this.fileChannel = fileChannel;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Maps the next chunk of the file
+	 * @return false if the whole file has been read
+	 */
+	@Override
+	protected boolean refill() {
+		try {
+			long remaining = fileChannel.size() - position;
+			if (remaining <= 0) {
+				return false;
+			}
+			long size = Math.min(remaining, chunkSize);
+			buffer = fileChannel.map(MapMode.READ_ONLY, position, size);
+			position += size;
+			return true;
+		} catch (IOException e) {
+			throw readingException(e);
+		}
+	}
+}
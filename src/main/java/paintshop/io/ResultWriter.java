@@ -0,0 +1,165 @@
+package paintshop.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import paintshop.exceptions.OutputFileException;
+import paintshop.exceptions.SolverException;
+import paintshop.model.PaintBatch;
+import paintshop.solver.Assignment;
+import paintshop.solver.SolutionStatus;
+
+/**
+ * Writer of the "Case #N: solution" lines that encodes them straight into a large reusable byte buffer,
+ * without formatting a String for each case, and writes the buffer to the output file through a FileChannel
+ * when it's full. The same bytes can optionally be echoed to the console, one buffer at a time
+ * @author danielaguado
+ *
+ */
+public class ResultWriter implements AutoCloseable {
+
+	public static final String EXCEPTION_OUTPUT_FILE = "Error writing the output file %s, the exception was: ";
+	public static final String CASE_NOT_SOLVED = "Case #%s can't be written as it hasn't been solved";
+
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final byte[] CASE_PREFIX = "Case #".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] CASE_SEPARATOR = ": ".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NO_SOLUTION = "IMPOSSIBLE".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] UNKNOWN_SOLUTION = "UNKNOWN".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NOT_PROVEN_OPTIMAL = " (NOT PROVEN OPTIMAL)".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+	private static final int MAX_INT_DIGITS = 10;
+
+	private String outputFileName;
+	private WritableByteChannel channel;
+	private OutputStream echo;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+
+	/**
+	 * Constructor that creates the output file
+	 * @param outputFileName The output file path
+	 * @param echoToConsole true to also print the results to the console
+	 */
+	public ResultWriter(final String outputFileName, final boolean echoToConsole) {
+		this.outputFileName = outputFileName;
+		this.echo = echoToConsole ? System.out : null;
+		try {
+			this.channel = new FileOutputStream(outputFileName).getChannel();
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFileName, e.getMessage());
+		}
+	}
+
+	/**
+	 * Constructor that writes the results to a channel, i.e. a connection
+	 * @param channel The channel, it's closed with the writer
+	 * @param description The description of the channel used in the error messages
+	 */
+	public ResultWriter(final WritableByteChannel channel, final String description) {
+		this.outputFileName = description;
+		this.channel = channel;
+	}
+
+	/**
+	 * Encodes the result line of a solved batch into the buffer
+	 * @param caseNumber The case number
+	 * @param batch The solved batch
+	 * @throws SolverException if the batch hasn't been solved
+	 */
+	public void writeCase(final int caseNumber, final PaintBatch batch) {
+		if (!batch.isSolved()) {
+			throw new SolverException(CASE_NOT_SOLVED, String.valueOf(caseNumber));
+		}
+		ensureCapacity(CASE_PREFIX.length + MAX_INT_DIGITS + CASE_SEPARATOR.length);
+		put(CASE_PREFIX);
+		putInt(caseNumber);
+		put(CASE_SEPARATOR);
+
+		Assignment solution = batch.getSolution();
+		if (solution == null) {
+			byte[] noSolution = batch.getStatus() == SolutionStatus.UNKNOWN ? UNKNOWN_SOLUTION : NO_SOLUTION;
+			ensureCapacity(noSolution.length);
+			put(noSolution);
+		} else {
+			for (int colour = 1; colour <= batch.getNumColours(); colour++) {
+				ensureCapacity(2);
+				if (colour > 1) {
+					buffer[position++] = ' ';
+				}
+				buffer[position++] = (byte) ('0' + solution.getType(colour).type());
+			}
+			if (batch.getStatus() == SolutionStatus.NOT_PROVEN_OPTIMAL) {
+				ensureCapacity(NOT_PROVEN_OPTIMAL.length);
+				put(NOT_PROVEN_OPTIMAL);
+			}
+		}
+
+		ensureCapacity(LINE_SEPARATOR.length);
+		put(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Writes the buffered results to the output file and the console
+	 */
+	public void flush() {
+		try {
+			ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, position);
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			if (echo != null) {
+				echo.write(buffer, 0, position);
+				echo.flush();
+			}
+			position = 0;
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFileName, e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			flush();
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFileName, e.getMessage());
+			}
+		}
+	}
+
+	private void ensureCapacity(final int bytes) {
+		if (position + bytes > buffer.length) {
+			flush();
+		}
+	}
+
+	private void put(final byte[] bytes) {
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	/**
+	 * Encodes a non negative int in decimal
+	 * @param value the value
+	 */
+	private void putInt(final int value) {
+		int digits = 1;
+		for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+			digits++;
+		}
+		int remaining = value;
+		for (int i = position + digits - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+		position += digits;
+	}
+}
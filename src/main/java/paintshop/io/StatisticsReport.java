@@ -0,0 +1,76 @@
+package paintshop.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import paintshop.exceptions.OutputFileException;
+import paintshop.model.CaseStatistics;
+import paintshop.model.PaintBatch;
+import paintshop.solver.SearchStatistics;
+
+/**
+ * Writer of the CSV report with the statistics of every test case of a run,
+ * it's written next to the output file with the .stats.csv extension
+ * @author danielaguado
+ *
+ */
+public class StatisticsReport implements AutoCloseable {
+
+	public static final String REPORT_EXTENSION = ".stats.csv";
+
+	private static final String EXCEPTION_REPORT_FILE = "Error writing the statistics report %s, the exception was: %s";
+	private static final String HEADER = "case,colours,customers,status,parse_ms,solve_ms,output_ms,nodes,backtracks,pruned,peak_depth,search_order";
+	private static final String ROW_FORMAT = "%d,%d,%d,%s,%.3f,%.3f,%.3f,%d,%d,%d,%d,%s";
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	private String reportFileName;
+	private BufferedWriter writer;
+
+	/**
+	 * Constructor that creates the report next to the output file and writes its header
+	 * @param outputFileName The output file path
+	 */
+	public StatisticsReport(final String outputFileName) {
+		this.reportFileName = outputFileName + REPORT_EXTENSION;
+		try {
+			this.writer = Files.newBufferedWriter(Paths.get(reportFileName), StandardCharsets.US_ASCII);
+			writer.write(HEADER);
+			writer.newLine();
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_REPORT_FILE, reportFileName, e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the row of a test case that has been solved and written
+	 * @param caseNumber The case number
+	 * @param batch The batch
+	 */
+	public void writeCase(final int caseNumber, final PaintBatch batch) {
+		CaseStatistics statistics = batch.getStatistics();
+		SearchStatistics search = statistics.getSearchStatistics();
+		int numCustomers = batch.getCustomers() == null ? 0 : batch.getCustomers().size();
+		try {
+			writer.write(String.format(Locale.ROOT, ROW_FORMAT, caseNumber, batch.getNumColours(), numCustomers, batch.getStatus(),
+					statistics.getParseNanos() / NANOS_PER_MILLI, statistics.getSolveNanos() / NANOS_PER_MILLI,
+					statistics.getOutputNanos() / NANOS_PER_MILLI, search.getNodes(), search.getBacktracks(), search.getPruned(),
+					search.getPeakDepth(), batch.getSearchOrder().getName()));
+			writer.newLine();
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_REPORT_FILE, reportFileName, e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new OutputFileException(EXCEPTION_REPORT_FILE, reportFileName, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package paintshop.io;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.model.PaintBatch;
+
+/**
+ * Reader for the text input format: the number of test cases in the first line and, for each case,
+ * the number of colours, the number of customers and one line of preferences per customer.
+ * The input is read with a {@link ByteTokenizer}, so no Strings are created while parsing
+ * @author danielaguado
+ *
+ */
+public class TextBatchReader implements BatchReader {
+
+	private static final String INCORRECT_NUMBER_OF_CUSTOMERS = "Expected %s customers but found %s";
+	private static final String AT_LEAST_ONE_CUSTOMER_IS_REQUIRED = "At least one customer is required in each test case";
+	private static final String INVALID_NUMBER_OF_CUSTOMERS = "Invalid number of customers, expected %s but found %s";
+	private static final String NUMBER_OF_COLOURS_MUST_BE_AT_LEAST_ONE = "The number of colours must be at least one";
+	private static final String EXCEPTION_READING_INPUT_FILE = "Exception reading the input file %s";
+
+	private ByteTokenizer tokenizer;
+	private int numCases;
+	private int casesRead;
+
+	/**
+	 * Constructor that opens the input file and reads the number of test cases
+	 * @param inputFile The path to the input file
+	 */
+	public TextBatchReader(final String inputFile) {
+		this(inputFile, false);
+	}
+
+	/**
+	 * Constructor that opens the input file, memory mapped or through a heap buffer,
+	 * and reads the number of test cases
+	 * @param inputFile The path to the input file
+	 * @param memoryMapped true to parse directly from the memory mapped file
+	 */
+	public TextBatchReader(final String inputFile, final boolean memoryMapped) {
+		try {
+			FileChannel channel = new FileInputStream(inputFile).getChannel();
+			this.tokenizer = memoryMapped ? new MappedByteTokenizer(channel) : new ByteTokenizer(channel);
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+		readNumCases();
+	}
+
+	/**
+	 * Constructor that reads the input from a channel, i.e. a connection, and reads the number of test cases
+	 * @param channel The channel with the input, it's closed with the reader
+	 */
+	public TextBatchReader(final ReadableByteChannel channel) {
+		this.tokenizer = new ByteTokenizer(channel);
+		readNumCases();
+	}
+
+	/**
+	 * Reads the first line of the input, closing the input if it isn't valid
+	 */
+	private void readNumCases() {
+		try {
+			this.numCases = tokenizer.readIntLine();
+		} catch (RuntimeException e) {
+			tokenizer.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public int getNumCases() {
+		return numCases;
+	}
+
+	@Override
+	public boolean hasNextBatch() {
+		return casesRead < numCases;
+	}
+
+	/**
+	 * Parses the next test case section in the input file
+	 * into the corresponding model objects
+	 * @return the batch
+	 */
+	@Override
+	public PaintBatch nextBatch() {
+		int numColors = tokenizer.readIntLine();
+		validateNumColours(numColors);
+		int numCustomers = tokenizer.readIntLine();
+
+		PaintBatch testCase = new PaintBatch(numColors);
+		parseCustomersForTestCase(numColors, numCustomers, testCase);
+
+		casesRead++;
+		return testCase;
+	}
+
+	@Override
+	public void close() {
+		tokenizer.close();
+	}
+
+	/**
+	 * Validates that the number of colours must is greater than zero 
+	 * @param numColors The number of colours to validate
+	 */
+	static void validateNumColours(final int numColors) {
+		if (numColors < 1) {
+			throw new InvalidInputException(NUMBER_OF_COLOURS_MUST_BE_AT_LEAST_ONE);
+		}
+	}
+
+	/**
+	 * Parses the subsequent customers list in the input file and validates it
+	 * @param numColours The number of colours in the batch
+	 * @param numCustomers The number of customers in the batch
+	 * @param batch The current batch that will contain the customers
+	 */
+	private void parseCustomersForTestCase(final int numColours, final int numCustomers, final PaintBatch batch) {
+		for (int i = 0; i < numCustomers; i++) {
+			int numValues = tokenizer.readIntsLine();
+			if (numValues >= 0) {
+				batch.addCustomer(tokenizer.getLineValues(), numValues);
+			} else {
+				throw new InvalidInputException(INVALID_NUMBER_OF_CUSTOMERS, String.valueOf(numCustomers),
+						String.valueOf(i));
+			}
+		}
+		validateCustomersForBatchRequest(numCustomers, batch);
+		batch.getPreferences().trimToSize();
+	}
+
+	/**
+	 * Validates the customer list for the current batch request
+	 * @param numCustomers The number of customers in the batch request
+	 * @param batchRequest The batch request to validate
+	 */
+	static void validateCustomersForBatchRequest(final int numCustomers, final PaintBatch batchRequest) {
+		if (batchRequest.getCustomers() == null || batchRequest.getCustomers().isEmpty()) {
+			throw new InvalidInputException(AT_LEAST_ONE_CUSTOMER_IS_REQUIRED);
+		} else {
+			if (numCustomers != batchRequest.getCustomers().size()) {
+				throw new InvalidInputException(INCORRECT_NUMBER_OF_CUSTOMERS, String.valueOf(numCustomers),
+						String.valueOf(batchRequest.getCustomers().size()));
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package paintshop.model;
+
+import paintshop.solver.SearchStatistics;
+
+/**
+ * Class that holds the time spent in each stage of a test case and the statistics of its search
+ * @author danielaguado
+ *
+ */
+public class CaseStatistics {
+
+	private long parseNanos;
+	private long solveNanos;
+	private long outputNanos;
+	private SearchStatistics searchStatistics = new SearchStatistics();
+
+	/**
+	 * The time spent reading the test case from the input file
+	 * @return the time in nanoseconds
+	 */
+	public long getParseNanos() {
+		return parseNanos;
+	}
+
+	public void setParseNanos(long parseNanos) {
+		this.parseNanos = parseNanos;
+	}
+
+	/**
+	 * The time spent calculating the solution
+	 * @return the time in nanoseconds
+	 */
+	public long getSolveNanos() {
+		return solveNanos;
+	}
+
+	public void setSolveNanos(long solveNanos) {
+		this.solveNanos = solveNanos;
+	}
+
+	/**
+	 * The time spent writing the solution, including the writes of the output buffer it filled
+	 * @return the time in nanoseconds
+	 */
+	public long getOutputNanos() {
+		return outputNanos;
+	}
+
+	public void setOutputNanos(long outputNanos) {
+		this.outputNanos = outputNanos;
+	}
+
+	/**
+	 * The nodes, backtracks, pruned subtrees and peak depth of the search
+	 * @return the statistics of the search
+	 */
+	public SearchStatistics getSearchStatistics() {
+		return searchStatistics;
+	}
+
+	public void setSearchStatistics(SearchStatistics searchStatistics) {
+		this.searchStatistics = searchStatistics;
+	}
+}
@@ -1,14 +1,15 @@
 package paintshop.model;
 
 /**
- * Class that models a Colour and its finish
+ * Class that models a Colour and its finish, it's immutable so the instances
+ * can be shared by every customer of a batch through a {@link ColourTable}
  * @author danielaguado
  *
  */
 public class Colour {
 
-	private int number;
-	private ColourType type;
+	private final int number;
+	private final ColourType type;
 
 	/**
 	 * Constructor that receives the colour number
@@ -0,0 +1,60 @@
+package paintshop.model;
+
+import java.util.Arrays;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.solver.Literals;
+
+/**
+ * Table of the Colour instances of a batch, so every preference for the same colour and finish
+ * shares a single immutable instance instead of creating one per preference.
+ * It's filled while the customers of the batch are parsed or read, and it's thread safe
+ * as the customers of a batch can be read from several threads
+ * @author danielaguado
+ *
+ */
+public class ColourTable {
+
+	public static final String INVALID_COLOUR_NUMBER = "Colour numbers must be between 1 and %s but found %s";
+
+	private static final int INITIAL_COLOURS = 64;
+
+	private int numColours;
+	private Colour[] colours;
+
+	/**
+	 * Constructor that receives the number of colours of the batch,
+	 * the table only grows up to it as greater colour numbers are requested
+	 * @param numColours The number of colours
+	 */
+	public ColourTable(final int numColours) {
+		this.numColours = numColours;
+		this.colours = new Colour[(Math.max(Math.min(numColours, INITIAL_COLOURS), 0) + 1) * 2];
+	}
+
+	/**
+	 * Returns the shared instance of the colour, creating it on the first request
+	 * @param number The colour number, between 1 and the number of colours of the batch
+	 * @param type The colour finish as an Integer
+	 * @return the colour
+	 */
+	public synchronized Colour get(final int number, final int type) {
+		if (number < 1 || number > numColours || number > Literals.MAX_COLOUR) {
+			throw new InvalidInputException(INVALID_COLOUR_NUMBER, String.valueOf(numColours), String.valueOf(number));
+		}
+		ColourType colourType = ColourType.getColourType(type);
+		int index = number * 2 + colourType.type();
+		if (index >= colours.length) {
+			//Double the table without going past the number of colours of the batch
+			long capacity = Math.min(Math.max(index + 2L, colours.length * 2L), (Math.min(numColours, Literals.MAX_COLOUR) + 1L) * 2);
+			colours = Arrays.copyOf(colours, (int) capacity);
+		}
+
+		Colour colour = colours[index];
+		if (colour == null) {
+			colour = new Colour(number, type);
+			colours[index] = colour;
+		}
+		return colour;
+	}
+}
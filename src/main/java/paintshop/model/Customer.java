@@ -25,41 +25,122 @@ public class Customer {
 	 * @param preferences the preferences string in the format 1 1 0
 	 */
 	public Customer(final String preferences) {
-		this.colourPreferences = parseColourPreferences(preferences);
+		this(preferences, null);
+	}
+
+	/**
+	 * Constructor that creates a customer based on the preferences line from the input file
+	 * sharing the Colour instances of the batch
+	 * @param preferences the preferences string in the format 1 1 0
+	 * @param colourTable the colours of the batch, if null a new Colour is created for each preference
+	 */
+	public Customer(final String preferences, final ColourTable colourTable) {
+		this.colourPreferences = parseColourPreferences(preferences, colourTable);
+	}
+
+	/**
+	 * Constructor that creates a customer from the values
+	 * of the preferences line already parsed as integers
+	 * @param preferenceValues the values of the line, i.e.: 1, 1, 0
+	 * @param numValues the number of values in the array that belong to the line
+	 */
+	public Customer(final int[] preferenceValues, final int numValues) {
+		this(preferenceValues, numValues, null);
+	}
+
+	/**
+	 * Constructor that creates a customer from the values of the preferences line
+	 * already parsed as integers sharing the Colour instances of the batch
+	 * @param preferenceValues the values of the line, i.e.: 1, 1, 0
+	 * @param numValues the number of values in the array that belong to the line
+	 * @param colourTable the colours of the batch, if null a new Colour is created for each preference
+	 */
+	public Customer(final int[] preferenceValues, final int numValues, final ColourTable colourTable) {
+		this.colourPreferences = createColourPreferences(preferenceValues, numValues, colourTable);
+	}
+
+	/**
+	 * Constructor used by the read-only view of a batch, with preferences already validated
+	 * @param colourPreferences the colour preferences
+	 */
+	Customer(final List<Colour> colourPreferences) {
+		this.colourPreferences = colourPreferences;
 	}
 
 	/**
 	 * Parses the preferences String passed as parameter into a list of Colour preferences
 	 * @param preferences the preferences String
+	 * @param colourTable the colours of the batch or null
+	 * @return the list of Colours
+	 */
+	private List<Colour> parseColourPreferences(final String preferences, final ColourTable colourTable) {
+
+		int[] customerLineInt = parseValues(preferences);
+		return createColourPreferences(customerLineInt, customerLineInt.length, colourTable);
+	}
+
+	/**
+	 * Creates the list of Colour preferences from the values of the preferences line
+	 * @param customerLineInt the values of the line
+	 * @param numValues the number of values in the array that belong to the line
+	 * @param colourTable the colours of the batch or null
 	 * @return the list of Colours
 	 */
-	private List<Colour> parseColourPreferences(final String preferences) {
+	private List<Colour> createColourPreferences(final int[] customerLineInt, final int numValues, final ColourTable colourTable) {
+
+		int numPreferences = validateValues(customerLineInt, numValues);
+		List<Colour> colourPrefs = new ArrayList<Colour>(numPreferences);
+
+		for (int i = 1; i + 1 < numValues; i += 2) {
+			int colour = customerLineInt[i];
+			int type = customerLineInt[i + 1];
+			colourPrefs.add(colourTable != null ? colourTable.get(colour, type) : new Colour(colour, type));
+		}
+
+		return colourPrefs;
+	}
+
+	/**
+	 * Maps the preferences String into an array of ints by splitting it by the spaces
+	 * @param preferences the preferences String
+	 * @return the values of the line
+	 */
+	static int[] parseValues(final String preferences) {
+		return Arrays.stream(preferences.split("\\s")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+	}
 
-		List<Colour> colourPrefs = new ArrayList<Colour>();
+	/**
+	 * Validates the values of a preferences line
+	 * @param customerLineInt the values of the line
+	 * @param numValues the number of values in the array that belong to the line
+	 * @return the number of preferences
+	 */
+	static int validateValues(final int[] customerLineInt, final int numValues) {
 
-		//Map the line into an array of ints by splitting by the spaces
-		int[] customerLineInt = Arrays.stream(preferences.split("\\s")).map(String::trim).mapToInt(Integer::parseInt).toArray();
-		int numPreferences = customerLineInt[0];
+		int numPreferences = numValues > 0 ? customerLineInt[0] : 0;
 
 		if (numPreferences == 0) {
 			throw new InvalidInputException(NUMBER_OF_COLORS_MUST_BE_GREATER_THAN_ZERO);
 		}
-		
-		for (int i = 1; i < customerLineInt.length; i += 2) {
-			int colour = customerLineInt[i];
-			if (colour < 1) {
+
+		int foundPreferences = 0;
+		for (int i = 1; i < numValues; i += 2) {
+			if (customerLineInt[i] < 1) {
 				throw new InvalidInputException(COLOUR_NUMBER_MUST_BE_GREATER_THAN_0);
 			}
-			int type = customerLineInt[i + 1];
-
-			colourPrefs.add(new Colour(colour, type));
+			//A colour without finish makes the number of preferences not match
+			if (i + 1 == numValues) {
+				break;
+			}
+			ColourType.getColourType(customerLineInt[i + 1]);
+			foundPreferences++;
 		}
 
-		if (colourPrefs.size() != numPreferences) {
-			throw new InvalidInputException(INCORRECT_NUM_CUST_PREFERENCES, String.valueOf(numPreferences), String.valueOf(colourPrefs.size()));
+		if (foundPreferences != numPreferences) {
+			throw new InvalidInputException(INCORRECT_NUM_CUST_PREFERENCES, String.valueOf(numPreferences), String.valueOf(foundPreferences));
 		}
 
-		return colourPrefs;
+		return numPreferences;
 	}
 
 	public List<Colour> getColourPreferences() {
@@ -0,0 +1,232 @@
+package paintshop.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.solver.Literals;
+
+/**
+ * The preferences of every customer of a batch in compressed sparse row layout:
+ * a flat array with the preferences of all the customers encoded as literals (colour * 2 + finish)
+ * and an array with the offset where the preferences of each customer start.
+ * A batch costs two int arrays instead of a Customer, a list and its Colour references per customer,
+ * and scanning the customers reads the memory sequentially.
+ * The customers are appended while the batch is parsed and can be read as Customer objects
+ * through the read-only view returned by {@link #asList()}, which shares the Colour instances
+ * of the batch when it has a {@link ColourTable}
+ * @author danielaguado
+ *
+ */
+public class CustomerPreferences {
+
+	private static final int INITIAL_CUSTOMERS = 16;
+
+	private int[] offsets = new int[INITIAL_CUSTOMERS + 1];
+	private int[] literals = new int[INITIAL_CUSTOMERS * 2];
+	private int numCustomers;
+	private final ColourTable colourTable;
+	private final List<Customer> view = new View();
+
+	/**
+	 * Constructor for preferences whose customers are read with new Colour instances
+	 */
+	public CustomerPreferences() {
+		this(null);
+	}
+
+	/**
+	 * Constructor that receives the table of colours of the batch,
+	 * the customers read from the preferences share its Colour instances
+	 * @param colourTable the table of colours, or null to create new Colour instances
+	 */
+	public CustomerPreferences(final ColourTable colourTable) {
+		this.colourTable = colourTable;
+	}
+
+	/**
+	 * Returns the preferences of a list of customers, without copying them if the list
+	 * is the view of a CustomerPreferences
+	 * @param customers the customers
+	 * @return the preferences of the customers
+	 */
+	public static CustomerPreferences of(final List<Customer> customers) {
+		if (customers instanceof View) {
+			return ((View) customers).preferences();
+		}
+		CustomerPreferences preferences = new CustomerPreferences();
+		for (Customer customer : customers) {
+			preferences.add(customer, Literals.MAX_COLOUR);
+		}
+		return preferences;
+	}
+
+	/**
+	 * Validates the values of a preferences line and appends them as a new customer
+	 * @param preferenceValues the values of the line, i.e.: 1, 1, 0
+	 * @param numValues the number of values in the array that belong to the line
+	 * @param numColours the number of colours in the batch, the highest valid colour number
+	 */
+	public void add(final int[] preferenceValues, final int numValues, final int numColours) {
+		int numPreferences = Customer.validateValues(preferenceValues, numValues);
+		for (int j = 0; j < numPreferences; j++) {
+			validateColour(preferenceValues[1 + j * 2], numColours);
+		}
+		int start = startCustomer(numPreferences);
+		for (int j = 0; j < numPreferences; j++) {
+			literals[start + j] = Literals.of(preferenceValues[1 + j * 2], preferenceValues[2 + j * 2]);
+		}
+	}
+
+	/**
+	 * Appends a customer
+	 * @param customer the customer
+	 * @param numColours the number of colours in the batch, the highest valid colour number
+	 */
+	public void add(final Customer customer, final int numColours) {
+		List<Colour> preferences = customer.getColourPreferences();
+		for (Colour colour : preferences) {
+			validateColour(colour.getNumber(), numColours);
+		}
+		int start = startCustomer(preferences.size());
+		for (int j = 0; j < preferences.size(); j++) {
+			literals[start + j] = Literals.of(preferences.get(j));
+		}
+	}
+
+	/**
+	 * Validates a colour number before it's encoded as a literal, so a colour that doesn't belong
+	 * to the batch can't overflow the literal and pass as a smaller colour
+	 * @param colour the colour number
+	 * @param numColours the number of colours in the batch
+	 */
+	private static void validateColour(final int colour, final int numColours) {
+		if (colour > numColours || colour > Literals.MAX_COLOUR) {
+			throw new InvalidInputException(ColourTable.INVALID_COLOUR_NUMBER, String.valueOf(numColours), String.valueOf(colour));
+		}
+	}
+
+	/**
+	 * Makes room for a new customer
+	 * @param numPreferences the number of preferences of the customer
+	 * @return the position of the first preference of the customer
+	 */
+	private int startCustomer(final int numPreferences) {
+		int start = offsets[numCustomers];
+		if (start + numPreferences > literals.length) {
+			literals = Arrays.copyOf(literals, Math.max(start + numPreferences, literals.length * 2));
+		}
+		if (numCustomers + 2 > offsets.length) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		}
+		numCustomers++;
+		offsets[numCustomers] = start + numPreferences;
+		return start;
+	}
+
+	/**
+	 * Releases the spare capacity of the arrays once every customer has been added
+	 */
+	public void trimToSize() {
+		offsets = Arrays.copyOf(offsets, numCustomers + 1);
+		literals = Arrays.copyOf(literals, offsets[numCustomers]);
+	}
+
+	public int size() {
+		return numCustomers;
+	}
+
+	/**
+	 * The offsets of the customers, the preferences of customer i are the literals from offsets[i]
+	 * to offsets[i + 1], exclusive. The array may be longer than the number of customers plus one and
+	 * it must not be modified
+	 * @return the offsets
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * The preferences of every customer as literals, one after another. The array may be longer
+	 * than the number of preferences and it must not be modified
+	 * @return the literals
+	 */
+	public int[] getLiterals() {
+		return literals;
+	}
+
+	/**
+	 * Calculates the highest colour number used by the customers
+	 * @param numColours the number of colours in the batch
+	 * @return the highest colour number
+	 */
+	public int maxColour(final int numColours) {
+		int maxColour = numColours;
+		for (int k = 0; k < offsets[numCustomers]; k++) {
+			maxColour = Math.max(maxColour, Literals.colour(literals[k]));
+		}
+		return maxColour;
+	}
+
+	/**
+	 * Copies the preferences into an array with the literals of each customer
+	 * @return the literals of each customer
+	 */
+	public int[][] toLiterals() {
+		int[][] customerLiterals = new int[numCustomers][];
+		for (int i = 0; i < numCustomers; i++) {
+			customerLiterals[i] = Arrays.copyOfRange(literals, offsets[i], offsets[i + 1]);
+		}
+		return customerLiterals;
+	}
+
+	/**
+	 * Creates a Customer with the preferences of a customer. It doesn't modify the preferences,
+	 * and the colour table is thread safe, so customers can be read from several threads
+	 * @param index the index of the customer
+	 * @return the customer
+	 */
+	public Customer getCustomer(final int index) {
+		List<Colour> colours = new ArrayList<>(offsets[index + 1] - offsets[index]);
+		for (int k = offsets[index]; k < offsets[index + 1]; k++) {
+			int colour = Literals.colour(literals[k]);
+			int type = Literals.type(literals[k]);
+			colours.add(colourTable != null ? colourTable.get(colour, type) : new Colour(colour, type));
+		}
+		return new Customer(colours);
+	}
+
+	/**
+	 * Read-only view of the customers, each Customer is created when it's read
+	 * @return the list of customers
+	 */
+	public List<Customer> asList() {
+		return view;
+	}
+
+	/**
+	 * List of the customers backed by the flat arrays
+	 */
+	private class View extends AbstractList<Customer> implements RandomAccess {
+
+		@Override
+		public Customer get(final int index) {
+			if (index < 0 || index >= numCustomers) {
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			}
+			return getCustomer(index);
+		}
+
+		@Override
+		public int size() {
+			return numCustomers;
+		}
+
+		private CustomerPreferences preferences() {
+			return CustomerPreferences.this;
+		}
+	}
+}
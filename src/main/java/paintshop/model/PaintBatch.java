@@ -1,23 +1,49 @@
 package paintshop.model;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+
+import paintshop.solver.Assignment;
+import paintshop.solver.BatchKey;
+import paintshop.solver.DecomposingSolver;
+import paintshop.solver.PaintBatchSolver;
+import paintshop.solver.SearchLimits;
+import paintshop.solver.SearchOrder;
+import paintshop.solver.SearchStatistics;
+import paintshop.solver.SingleMatteSolver;
+import paintshop.solver.SolutionCache;
+import paintshop.solver.SolutionStatus;
+import paintshop.solver.SolverEngine;
+import paintshop.solver.SolverResult;
 
 /**
  * Class that models a batch request, it contains the number of colours to be mixed for the batch, 
- * a list of customers and their list of preferences and the formatted result once the batch is mixed 
+ * the preferences of its customers and the formatted result once the batch is mixed.
+ * The preferences are stored in the flat arrays of a {@link CustomerPreferences}
  * @author danielaguado
  *
  */
 public class PaintBatch {
 
 	private static final String NO_SOLUTION = "IMPOSSIBLE";
+	private static final String UNKNOWN_SOLUTION = "UNKNOWN";
+	private static final String NOT_PROVEN_OPTIMAL = " (NOT PROVEN OPTIMAL)";
 
 	private int numColours;
-	private List<Customer> customers;
+	private CustomerPreferences preferences;
 	private String batchFormatted;
+	private Assignment solution;
+	private SolutionStatus status;
+	private boolean solved;
+	private int searchWorkers = 1;
+	private PaintBatchSolver solver = SolverEngine.AUTO;
+	private SearchOrder searchOrder = SearchOrder.FILE;
+	private SolutionCache solutionCache;
+	private ColourTable colourTable;
+	private SearchLimits searchLimits = SearchLimits.NONE;
+	private final CaseStatistics statistics = new CaseStatistics();
+	//State to add customers to the solved batch without solving it again
+	private int solvedCustomers;
+	private SingleMatteSolver incrementalSolver;
 
 	/**
 	 * Constructor that receives the number of colours
@@ -34,111 +60,165 @@ public class PaintBatch {
 	 * @return The formatted optimal combination or IMPOSSIBLE if there isn't a solution
 	 */
 	public String mixColours() {
-		Map<Integer, ColourType> tempSolution = new HashMap<>();
-		Map<Integer, ColourType> solution = new HashMap<>();
-		
-		determineSolution(0, tempSolution, solution);
+		solve();
+		return getBatchFormatted();
+	}
 
-		if (solution.isEmpty()) {
-			batchFormatted = NO_SOLUTION;
+	/**
+	 * Calculates the optimal colour combination without formatting it with the solver of the batch.
+	 * By default, when every customer likes at most one MATTE colour the linear time solver is used,
+	 * otherwise the batch is split into independent groups of customers that share colours
+	 * and each of them is solved with the engine picked for it.
+	 * If a solution cache is set, the solution of a batch with the same customers is reused.
+	 * The backtracking search stops when the search limits run out, keeping the best solution found so far
+	 */
+	public void solve() {
+		long start = System.nanoTime();
+		SolverResult result;
+		if (solutionCache != null) {
+			result = solutionCache.getOrSolve(BatchKey.of(numColours, preferences), this::calculateSolution);
+			//The solution may be shared with other batches through the cache, so it can't be updated in place
+			incrementalSolver = null;
 		} else {
-			batchFormatted = formatOutput(solution, numColours);
+			result = calculateSolution();
 		}
-		return batchFormatted;
+		setResult(result, start);
 	}
 
 	/**
-	 * Recursive method that finds the best solution by using a backtracking algorithm
-	 * @param currentCustomerIndex the customer being explored now
-	 * @param tempSolution The solution being calculated at the current iteration
-	 * @param bestSolution The optimal solution if there is any
-	 * @return if a valid solution was found
+	 * Adds a customer to the batch and updates its solution, solving the batch if it hasn't been solved.
+	 * When every customer likes at most one MATTE colour only the colours forced by the new customer are propagated.
+	 * Otherwise, if the current solution already satisfies the new customer it's kept as it is, as adding a customer
+	 * can't lower the number of MATTE colours. If not, only the component of the new customer, the customers that
+	 * share colours with it directly or through other customers, is solved again and the other colours keep their finish.
+	 * When the component is solved with the backtracking search, its previous number of MATTE colours is used as a lower bound
+	 * @param customer The new customer
 	 */
-	private boolean determineSolution(int currentCustomerIndex, Map<Integer, ColourType> tempSolution, Map<Integer, ColourType> bestSolution) {
+	public void addCustomerAndSolve(final Customer customer) {
+		boolean upToDate = solved && solvedCustomers == (preferences == null ? 0 : preferences.size());
+		addCustomer(customer);
+		if (!upToDate) {
+			solve();
+			return;
+		}
 
-		//Base case, we have reached the last customer
-		if (currentCustomerIndex == customers.size()) {
-			return true;
-		} else {
-			Customer cust = customers.get(currentCustomerIndex);
-
-			//Current customer might be already satisfied with the current temp solution
-			//and we just would need to jump to the next customer
-			if (!isCustomerSatisfied(tempSolution, cust)) {
-
-				//Try all customer's preferences
-				for (Colour currentColour : cust.getColourPreferences()) {
-					if (!tempSolution.containsKey(currentColour.getNumber())) {
-
-						//Add the current colour to the temporary solution and jump to the next customer
-						tempSolution.put(currentColour.getNumber(), currentColour.getType());
-						boolean solutionFound = determineSolution(currentCustomerIndex + 1, tempSolution, bestSolution);
-
-						//If we found a solution, determine if it's a more optimal solution or discard it
-						if (solutionFound) {
-							determineSolutionWithLessMatteColours(tempSolution, bestSolution);
-						}
-						//Remove the last colour we tried before moving to the next one
-						tempSolution.remove(currentColour.getNumber());
-					}
-				}
-				//After trying with all current customer's preferences, no one will give a satisfactory solution 
-				if (!isCustomerSatisfied(tempSolution, cust)) {
-					return false;
-				}
-			} else {
-				//Customer is already satisfied with the current solution, jump to the next one
-				boolean solutionFound = determineSolution(currentCustomerIndex + 1, tempSolution, bestSolution);
-
-				//If we found a solution, determine if it's a more optimal solution or discard it
-				if (solutionFound) {
-					determineSolutionWithLessMatteColours(tempSolution, bestSolution);
-				}
+		long start = System.nanoTime();
+		if (status != SolutionStatus.IMPOSSIBLE && incrementalSolver != null
+				&& SingleMatteSolver.supports(customer)) {
+			//The customer is registered even if already satisfied, later customers may force their colours
+			Assignment updated = incrementalSolver.addCustomer(customer);
+			if (updated == null) {
+				incrementalSolver = null;
 			}
+			setResult(new SolverResult(updated, SolutionStatus.of(updated, true)), start);
+			return;
 		}
-		return false;
+
+		incrementalSolver = null;
+		if (status == SolutionStatus.IMPOSSIBLE || (solution != null && isSatisfied(customer))) {
+			//More customers can't make an IMPOSSIBLE batch possible, and a satisfied customer doesn't change the optimum
+			statistics.setSolveNanos(System.nanoTime() - start);
+			statistics.setSearchStatistics(new SearchStatistics());
+			solvedCustomers++;
+			return;
+		}
+
+		if (solution == null) {
+			//The search limits ran out before finding a solution, so there isn't one to start from
+			setResult(calculateSolution(), start);
+			return;
+		}
+		//Only the customers sharing colours with the new one, directly or through other customers, are solved again
+		DecomposingSolver componentSolver = new DecomposingSolver(numColours, getCustomers(), searchWorkers, searchLimits.newBudget(),
+				searchOrder, solver);
+		setResult(componentSolver.solveComponentOf(preferences.size() - 1, new SolverResult(solution, status)), start);
 	}
 
 	/**
-	 * Determines whether the solution passed as parameter satisfies the customer
-	 * by checking if there is one of the customers preferences in the solution 
-	 * @param solution the solution
-	 * @param customer the customer
-	 * @return true if the solution satisfies customer's preferences
+	 * Adds a customer from their colour preferences string and updates the solution of the batch
+	 * @param customerPreference The customer preferences string
+	 * @return The formatted optimal combination or IMPOSSIBLE if there isn't a solution
 	 */
-	private boolean isCustomerSatisfied(Map<Integer, ColourType> solution, Customer customer) {
+	public String addCustomerAndMixColours(final String customerPreference) {
+		addCustomerAndSolve(new Customer(customerPreference, getColourTable()));
+		return getBatchFormatted();
+	}
 
+	/**
+	 * Determines if the current solution satisfies a customer
+	 * @param customer The customer
+	 * @return true if the solution has the finish of any of the customer's preferences
+	 */
+	private boolean isSatisfied(final Customer customer) {
 		for (Colour colour : customer.getColourPreferences()) {
-			if ((solution.containsKey(colour.getNumber()) && solution.get(colour.getNumber()).equals(colour.getType()))) {
+			if (colour.getNumber() <= solution.getMaxColour() && solution.getType(colour.getNumber()) == colour.getType()) {
 				return true;
 			}
 		}
-
 		return false;
 	}
 
 	/**
-	 * Compares both solutions passed as parameters and updates bestSolution 
-	 * with the one that has less MATTE colours
-	 * @param tempSolution the temporary solution
-	 * @param bestSolution the current best solution
+	 * Keeps the result of solving the batch
+	 * @param result The solution and its status
+	 * @param start The time the solve started
+	 */
+	private void setResult(final SolverResult result, final long start) {
+		solution = result.getSolution();
+		status = result.getStatus();
+		statistics.setSolveNanos(System.nanoTime() - start);
+		statistics.setSearchStatistics(result.getStatistics());
+		solvedCustomers = preferences == null ? 0 : preferences.size();
+		batchFormatted = null;
+		solved = true;
+	}
+
+	/**
+	 * Calculates the optimal colour combination with the solver of the batch
+	 * @return the solution and its status
 	 */
-	private void determineSolutionWithLessMatteColours(Map<Integer, ColourType> tempSolution, Map<Integer, ColourType> bestSolution) {
-		if (bestSolution.isEmpty() || sumMatte(tempSolution) < sumMatte(bestSolution)) {
-			Map<Integer, ColourType> newSolution = new HashMap<>();
-			newSolution.putAll(tempSolution);
-			bestSolution.clear();
-			bestSolution.putAll(newSolution);
+	private SolverResult calculateSolution() {
+		if (isLinear()) {
+			SingleMatteSolver linearSolver = new SingleMatteSolver(numColours, preferences);
+			Assignment linearSolution = linearSolver.solve();
+			incrementalSolver = linearSolution != null ? linearSolver : null;
+			return new SolverResult(linearSolution, SolutionStatus.of(linearSolution, true));
 		}
+		incrementalSolver = null;
+		return solver.solve(numColours, getCustomers(), searchWorkers, searchLimits.newBudget(), searchOrder);
 	}
 
 	/**
-	 * Calculates the number of MATTE colours in the solution
-	 * @param solution the solution
-	 * @return The number of MATTE colours in the solution
+	 * Determines whether the batch is solved with the linear time solver, which can add customers incrementally
+	 * @return true if the solver picks the linear time solver for the customers
 	 */
-	private int sumMatte(Map<Integer, ColourType> solution) {
-		return solution.values().stream().mapToInt(ColourType::type).sum();
+	private boolean isLinear() {
+		return (solver == SolverEngine.AUTO || solver == SolverEngine.LINEAR) && SingleMatteSolver.supports(preferences);
+	}
+
+	/**
+	 * The solution formatted as required in the output, formatted on the first call
+	 * @return The formatted optimal combination, IMPOSSIBLE if there isn't a solution
+	 * or null if the batch hasn't been solved. If the search limits ran out the best combination found
+	 * is followed by (NOT PROVEN OPTIMAL), or UNKNOWN is returned if none was found
+	 */
+	public String getBatchFormatted() {
+		if (batchFormatted == null && solved) {
+			switch (status) {
+			case IMPOSSIBLE:
+				batchFormatted = NO_SOLUTION;
+				break;
+			case UNKNOWN:
+				batchFormatted = UNKNOWN_SOLUTION;
+				break;
+			case NOT_PROVEN_OPTIMAL:
+				batchFormatted = formatOutput(solution, numColours) + NOT_PROVEN_OPTIMAL;
+				break;
+			default:
+				batchFormatted = formatOutput(solution, numColours);
+			}
+		}
+		return batchFormatted;
 	}
 
 	/**
@@ -148,7 +228,7 @@ public class PaintBatch {
 	 * @param numColors the number of colours
 	 * @return the formatted solution
 	 */
-	private String formatOutput(Map<Integer, ColourType> solution, int numColors) {
+	private String formatOutput(Assignment solution, int numColors) {
 
 		StringBuilder result = new StringBuilder();
 
@@ -157,33 +237,164 @@ public class PaintBatch {
 				result.append(" ");
 			}
 
-			if (solution.containsKey(i)) {
-				result.append(solution.get(i).type());
-			} else {
-				result.append(ColourType.GLOSSY.type());
-			}
+			result.append(solution.getType(i).type());
 		}
 		return result.toString();
 	}
 
 	/**
-	 * Creates a customer from their colour preferences string
-	 * and adds it to the customers list
+	 * Adds a customer from their colour preferences string
 	 * @param customerPreference The customer preferences string 
 	 * as read from the input file 
 	 */
 	public void addCustomer(final String customerPreference) {
-		if (customers == null) {
-			customers = new ArrayList<>();
+		int[] values = Customer.parseValues(customerPreference);
+		addCustomer(values, values.length);
+	}
+
+	/**
+	 * Adds a customer from the values of their preferences line already parsed as integers,
+	 * without creating a Customer
+	 * @param preferenceValues the values of the line, i.e.: 1, 1, 0
+	 * @param numValues the number of values in the array that belong to the line
+	 */
+	public void addCustomer(final int[] preferenceValues, final int numValues) {
+		getOrCreatePreferences().add(preferenceValues, numValues, numColours);
+	}
+
+	/**
+	 * Adds an already created customer
+	 * @param customer The customer
+	 */
+	public void addCustomer(final Customer customer) {
+		getOrCreatePreferences().add(customer, numColours);
+	}
+
+	private CustomerPreferences getOrCreatePreferences() {
+		if (preferences == null) {
+			preferences = new CustomerPreferences(getColourTable());
 		}
-		customers.add(new Customer(customerPreference));
+		return preferences;
 	}
 
 	public int getNumColours() {
 		return numColours;
 	}
 
+	/**
+	 * Read-only view of the customers, each Customer is created from the flat arrays when it's read
+	 * with the Colour instances of the colour table of the batch
+	 * @return the customers or null if the batch has no customers
+	 */
 	public List<Customer> getCustomers() {
-		return customers;
+		return preferences == null ? null : preferences.asList();
+	}
+
+	/**
+	 * The preferences of the customers in flat arrays
+	 * @return the preferences or null if the batch has no customers
+	 */
+	public CustomerPreferences getPreferences() {
+		return preferences;
+	}
+
+	/**
+	 * The table of Colour instances shared by the customers of this batch, created on the first call
+	 * @return the colour table
+	 */
+	public ColourTable getColourTable() {
+		if (colourTable == null) {
+			colourTable = new ColourTable(numColours);
+		}
+		return colourTable;
+	}
+
+	/**
+	 * The optimal colour combination calculated by solve
+	 * @return The solution or null if there isn't a solution or the batch hasn't been solved
+	 */
+	public Assignment getSolution() {
+		return solution;
+	}
+
+	public boolean isSolved() {
+		return solved;
+	}
+
+	/**
+	 * The status of the solution calculated by solve
+	 * @return the status or null if the batch hasn't been solved
+	 */
+	public SolutionStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * The time spent in each stage of this batch and the statistics of its search
+	 * @return the statistics
+	 */
+	public CaseStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * The time and node limits of the backtracking search
+	 * @return the limits
+	 */
+	public SearchLimits getSearchLimits() {
+		return searchLimits;
+	}
+
+	public void setSearchLimits(SearchLimits searchLimits) {
+		this.searchLimits = searchLimits;
+	}
+
+	/**
+	 * The number of threads used to search the solution of this batch
+	 * when it can't be solved in linear time
+	 * @return the number of threads
+	 */
+	public int getSearchWorkers() {
+		return searchWorkers;
+	}
+
+	public void setSearchWorkers(int searchWorkers) {
+		this.searchWorkers = searchWorkers;
+	}
+
+	/**
+	 * The solver of this batch, by default the engine is picked from the features of the batch
+	 * @return the solver
+	 */
+	public PaintBatchSolver getSolver() {
+		return solver;
+	}
+
+	public void setSolver(PaintBatchSolver solver) {
+		this.solver = solver;
+	}
+
+	/**
+	 * The order the backtracking search visits the customers and tries their preferences
+	 * @return the order
+	 */
+	public SearchOrder getSearchOrder() {
+		return searchOrder;
+	}
+
+	public void setSearchOrder(SearchOrder searchOrder) {
+		this.searchOrder = searchOrder;
+	}
+
+	/**
+	 * The cache shared with other batches, null if the solution is always calculated
+	 * @return the cache
+	 */
+	public SolutionCache getSolutionCache() {
+		return solutionCache;
+	}
+
+	public void setSolutionCache(SolutionCache solutionCache) {
+		this.solutionCache = solutionCache;
 	}
-}
\ No newline at end of file
+}
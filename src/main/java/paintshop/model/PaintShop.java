@@ -1,19 +1,20 @@
 package paintshop.model;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.Scanner;
-
-import org.apache.commons.lang3.StringUtils;
-
-import paintshop.exceptions.InvalidInputException;
-import paintshop.exceptions.OutputFileException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import paintshop.exceptions.SolverException;
+import paintshop.io.BatchReader;
+import paintshop.io.BatchReaders;
+import paintshop.io.ResultWriter;
+import paintshop.io.StatisticsReport;
+import paintshop.solver.SearchLimits;
+import paintshop.solver.SolutionCache;
 
 /**
  * Class that models out Paint Shop containing a list of customer batch requests 
@@ -24,29 +25,24 @@ import paintshop.exceptions.OutputFileException;
  */
 public class PaintShop {
 
-	private static final String EXCEPTION_OUTPUT_FILE = "Error writing the output file %s, the exception was: ";
-	private static final String REACHED_END_OF_FILE = "Expected reading an Integer, reached the end of the file";
-	private static final String EXPECTED_INTEGER = "Expected reading an Integer, found: %s";
-	private static final String INVALID_COLOUR_NUMBER = "Colour numbers must be between 1 and %s but found %s";
-	private static final String INCORRECT_NUMBER_OF_CUSTOMERS = "Expected %s customers but found %s";
-	private static final String AT_LEAST_ONE_CUSTOMER_IS_REQUIRED = "At least one customer is required in each test case";
-	private static final String INVALID_NUMBER_OF_CUSTOMERS = "Invalid number of customers, expected %s but found %s";
-	private static final String NUMBER_OF_COLOURS_MUST_BE_AT_LEAST_ONE = "The number of colours must be at least one";
-	private static final String EXCEPTION_READING_INPUT_FILE = "Exception reading the input file %s";
 	private static final String OUTPUT_FILENAME = "paintShopOutput-%s.txt";
 	private static final String CASE_FORMAT_STRING = "Case #%s: %s";
+	private static final String INTERRUPTED_WHILE_SOLVING = "Interrupted while solving the batches";
+	private static final String EXCEPTION_SOLVING_CASE = "Error solving case #%s: %s";
 
 	private List<PaintBatch> customerBatches;
 	private List<String> batchSolutionFormatted;
 	private String outputFileName;
+	private PaintShopOptions options;
+	private SolutionCache solutionCache;
+	private SearchLimits searchLimits;
 
 	/**
 	 * Constructor that receives the input file as a parameter and does the parsing
 	 * @param inputFile The input file path
 	 */
 	public PaintShop(final String inputFile) {
-		parseInputFile(inputFile);
-		this.outputFileName = generateFileNameFromTimestamp();
+		this(inputFile, null, new PaintShopOptions());
 	}
 
 	/**
@@ -56,165 +52,137 @@ public class PaintShop {
 	 * @param outputFile The output file path
 	 */
 	public PaintShop(final String inputFile, final String outputFile) {
-		parseInputFile(inputFile);
-		this.outputFileName = outputFile;
+		this(inputFile, outputFile, new PaintShopOptions());
 	}
 
 	/**
-	 * 	Generate paint batches for each customer request
-	 *  and formats the result to the "Case #N: solution" format 
+	 * Constructor that receives the input file, the output file and the options for the run
+	 * and parses the input file
+	 * @param inputFile The input file path
+	 * @param outputFile The output file path, if null a file name is generated from the current timestamp
+	 * @param options The options for the run
 	 */
-	public void generateBatches() {
-		int caseNumber = 1;
-		for (PaintBatch batch : customerBatches) {
-			String formattedBatchResult = String.format(CASE_FORMAT_STRING, caseNumber, batch.mixColours());
-			addBatchSolutionFormatted(formattedBatchResult);
-			caseNumber++;
-		}
+	public PaintShop(final String inputFile, final String outputFile, final PaintShopOptions options) {
+		this.options = options;
+		this.solutionCache = options.getCacheSize() > 0 ? new SolutionCache(options.getCacheSize()) : null;
+		this.searchLimits = SearchLimits.startingNow(options.getTimeLimitMillis(), options.getNodeLimit(), options.getRunTimeLimitMillis());
+		parseInputFile(inputFile);
+		this.outputFileName = outputFile != null ? outputFile : generateFileNameFromTimestamp();
 	}
 
 	/**
-	 * Outputs the formatted solutions into the selected file name or a generated one
+	 * 	Generate paint batches for each customer request.
+	 *  If more than one worker is configured the batches are solved in parallel,
+	 *  the results are kept in each batch so the input order is kept
 	 */
-	public void printOutput() {
-
-		try (PrintWriter writer = new PrintWriter(new FileWriter(outputFileName))) {
-			for (String batch : batchSolutionFormatted) {
-				System.out.println(batch);
-				writer.println(batch);
+	public void generateBatches() {
+		if (options.getWorkers() > 1 && customerBatches.size() > 1) {
+			solveInParallel();
+		} else {
+			for (PaintBatch batch : customerBatches) {
+				batch.solve();
 			}
-		} catch (Exception e) {
-			throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFileName, e.getMessage());
 		}
+		batchSolutionFormatted = null;
 	}
 
 	/**
-	 * Generates a file name based on the default file name 
-	 * and current timestamp
-	 * @return the file name
+	 * Solves every batch in a pool with the configured number of workers
 	 */
-	private String generateFileNameFromTimestamp() {
-		Instant instant = Instant.now();
-		long timeStampMillis = instant.toEpochMilli();
-
-		String outputFile = String.format(OUTPUT_FILENAME, timeStampMillis);
-		return outputFile;
-	}
-
-	/**
-	 * Reads the input file and maps it into the paint shop model objects
-	 * @param inputFile The path to the input file
-	 */
-	private void parseInputFile(final String inputFile) {
-
-		try (Scanner scanner = new Scanner(new File(inputFile))) {
-
-			int numTestCases = readInt(scanner);
-			parseTestCases(numTestCases, scanner);
+	private void solveInParallel() {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(options.getWorkers(), customerBatches.size()));
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (PaintBatch batch : customerBatches) {
+				futures.add(executor.submit(batch::solve));
+			}
 
-		} catch (IOException e) {
-			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+			for (int i = 0; i < futures.size(); i++) {
+				waitForSolution(futures.get(i), i + 1);
+			}
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
 	/**
-	 * Parses the subsequent test cases section in the input file 
-	 * into the corresponding model objects
-	 * @param numCustomerBatchRequests The number of customer batch requests included in the file
-	 * @param scanner The scanner for the input file
+	 * Waits for a batch solved by the pool
+	 * @param future The future of the batch
+	 * @param caseNumber The case number of the batch
 	 */
-	private void parseTestCases(final int numCustomerBatchRequests, final Scanner scanner) {
-
-		for (int i = 0; i < numCustomerBatchRequests; i++) {
-			int numColors = readInt(scanner);
-			validateNumColours(numColors);
-			int numCustomers = readInt(scanner);
-
-			PaintBatch testCase = new PaintBatch(numColors);
-			parseCustomersForTestCase(numColors, numCustomers, testCase, scanner);
-
-			addPaintBatch(testCase);
+	private void waitForSolution(final Future<?> future, final int caseNumber) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SolverException(INTERRUPTED_WHILE_SOLVING);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SolverException(EXCEPTION_SOLVING_CASE, String.valueOf(caseNumber), e.getCause().getMessage());
 		}
 	}
 
 	/**
-	 * Validates that the number of colours must is greater than zero 
-	 * @param numColors The number of colours to validate
+	 * Outputs the solutions into the selected file name or a generated one,
+	 * and to the console if the echo option is enabled.
+	 * If the statistics option is enabled the statistics report is written next to the output file
 	 */
-	private void validateNumColours(final int numColors) {
-		if (numColors < 1) {
-			throw new InvalidInputException(NUMBER_OF_COLOURS_MUST_BE_AT_LEAST_ONE);
-		}
-	}
+	public void printOutput() {
 
-	/**
-	 * Parses the subsequent customers list in the input file and validates it
-	 * @param numColours The number of colours in the batch
-	 * @param numCustomers The number of customers in the batch
-	 * @param batch The current batch that will contain the customers
-	 * @param scanner The scanner for the input file
-	 */
-	private void parseCustomersForTestCase(final int numColours, final int numCustomers, final PaintBatch batch, final Scanner scanner) {
-		for (int i = 0; i < numCustomers; i++) {
-			if (scanner.hasNextLine()) {
-				batch.addCustomer(scanner.nextLine());
-			} else {
-				throw new InvalidInputException(INVALID_NUMBER_OF_CUSTOMERS, String.valueOf(numCustomers),
-						String.valueOf(i));
+		try (ResultWriter writer = new ResultWriter(outputFileName, options.isEcho())) {
+			int caseNumber = 1;
+			for (PaintBatch batch : customerBatches) {
+				long start = System.nanoTime();
+				writer.writeCase(caseNumber, batch);
+				batch.getStatistics().setOutputNanos(System.nanoTime() - start);
+				caseNumber++;
 			}
 		}
-		validateCustomersForBatchRequest(numCustomers, batch);
-		validateColoursAreInCorrectRange(numColours, batch);
-	}
 
-	/**
-	 * Validates the customer list for the current batch request
-	 * @param numCustomers The number of customers in the batch request
-	 * @param batchRequest The batch request to validate
-	 */
-	private void validateCustomersForBatchRequest(final int numCustomers, final PaintBatch batchRequest) {
-		if (batchRequest.getCustomers().isEmpty()) {
-			throw new InvalidInputException(AT_LEAST_ONE_CUSTOMER_IS_REQUIRED);
-		} else {
-			if (numCustomers != batchRequest.getCustomers().size()) {
-				throw new InvalidInputException(INCORRECT_NUMBER_OF_CUSTOMERS, String.valueOf(numCustomers),
-						String.valueOf(batchRequest.getCustomers().size()));
+		if (options.isStatistics()) {
+			try (StatisticsReport report = new StatisticsReport(outputFileName)) {
+				int caseNumber = 1;
+				for (PaintBatch batch : customerBatches) {
+					report.writeCase(caseNumber, batch);
+					caseNumber++;
+				}
 			}
 		}
 	}
 
 	/**
-	 * Validates that every colour for a batch request is in the correct range 
-	 * according to the provided number of colours
-	 * @param numColours The number of colours in the batch request
-	 * @param batchRequest The batch request that needs to be validated
+	 * Generates a file name based on the default file name 
+	 * and current timestamp
+	 * @return the file name
 	 */
-	private void validateColoursAreInCorrectRange(final int numColours, final PaintBatch batchRequest) {
-		Optional<Colour> invalidColour = batchRequest.getCustomers().stream().flatMap(customer -> customer.getColourPreferences().stream())
-				.filter(colour -> colour.getNumber() > numColours).findAny();
-		if (invalidColour.isPresent()) {
-			throw new InvalidInputException(INVALID_COLOUR_NUMBER, String.valueOf(numColours),
-					String.valueOf(invalidColour.get().getNumber()));
-		}
+	public static String generateFileNameFromTimestamp() {
+		Instant instant = Instant.now();
+		long timeStampMillis = instant.toEpochMilli();
+
+		String outputFile = String.format(OUTPUT_FILENAME, timeStampMillis);
+		return outputFile;
 	}
 
 	/**
-	 * Reads a single int from the input file, 
-	 * throwing an InvalidInputException if an unexpected error occurs
-	 * @param scanner The scanner for the input file
-	 * @return The integer from the file
+	 * Reads the input file and maps it into the paint shop model objects
+	 * @param inputFile The path to the input file
 	 */
-	private int readInt(final Scanner scanner) {
-
-		if (scanner.hasNextLine()) {
-			String nextLine = scanner.nextLine();
-			if (StringUtils.isNumeric(nextLine)) {
-				return Integer.parseInt(nextLine);
-			} else {
-				throw new InvalidInputException(EXPECTED_INTEGER, nextLine);
+	private void parseInputFile(final String inputFile) {
+
+		try (BatchReader reader = BatchReaders.open(inputFile, options)) {
+			while (reader.hasNextBatch()) {
+				long start = System.nanoTime();
+				PaintBatch testCase = reader.nextBatch();
+				testCase.getStatistics().setParseNanos(System.nanoTime() - start);
+				testCase.setSearchWorkers(options.getSearchWorkers());
+				testCase.setSolver(options.getSolver());
+				testCase.setSearchOrder(options.getSearchOrder());
+				testCase.setSolutionCache(solutionCache);
+				testCase.setSearchLimits(searchLimits);
+				addPaintBatch(testCase);
 			}
-		} else {
-			throw new InvalidInputException(REACHED_END_OF_FILE);
 		}
 	}
 
@@ -229,22 +197,32 @@ public class PaintShop {
 		customerBatches.add(batch);
 	}
 
-	/**
-	 * Adds a formatted solution to the list
-	 * @param solution the formatted solution
-	 */
-	public void addBatchSolutionFormatted(String solution) {
-		if (batchSolutionFormatted == null) {
-			batchSolutionFormatted = new ArrayList<>();
-		}
-		batchSolutionFormatted.add(solution);
-	}
-
 	public List<PaintBatch> getCustomerBatches() {
 		return customerBatches;
 	}
 
+	/**
+	 * The cache of solutions shared by the batches of the input file
+	 * @return the cache or null if the cache is disabled
+	 */
+	public SolutionCache getSolutionCache() {
+		return solutionCache;
+	}
+
+	/**
+	 * The solutions in the "Case #N: solution" format, formatted on the first call after generating the batches
+	 * @return the formatted solutions or null if the batches haven't been generated or any of them hasn't been solved
+	 */
 	public List<String> getBatchSolutionFormatted() {
+		if (batchSolutionFormatted == null && customerBatches != null && !customerBatches.isEmpty()
+				&& customerBatches.stream().allMatch(PaintBatch::isSolved)) {
+			batchSolutionFormatted = new ArrayList<>();
+			int caseNumber = 1;
+			for (PaintBatch batch : customerBatches) {
+				batchSolutionFormatted.add(String.format(CASE_FORMAT_STRING, caseNumber, batch.getBatchFormatted()));
+				caseNumber++;
+			}
+		}
 		return batchSolutionFormatted;
 	}
 
@@ -0,0 +1,216 @@
+package paintshop.model;
+
+import paintshop.solver.SearchOrder;
+import paintshop.solver.SolverEngine;
+
+/**
+ * Class that holds the optional settings of a Paint Shop run
+ * @author danielaguado
+ *
+ */
+public class PaintShopOptions {
+
+	public static final int DEFAULT_WORKERS = 1;
+	public static final int DEFAULT_QUEUE_SIZE = 64;
+
+	private int workers = DEFAULT_WORKERS;
+	private int searchWorkers = DEFAULT_WORKERS;
+	private SolverEngine solver = SolverEngine.AUTO;
+	private SearchOrder searchOrder = SearchOrder.FILE;
+	private boolean streaming;
+	private int queueSize = DEFAULT_QUEUE_SIZE;
+	private boolean memoryMapped;
+	private boolean echo;
+	private int cacheSize;
+	private long timeLimitMillis;
+	private long runTimeLimitMillis;
+	private long nodeLimit;
+	private boolean statistics;
+	private int serverPort;
+	private int connectPort;
+
+	/**
+	 * The number of threads used to solve the batches, 1 solves them one after another
+	 * @return the number of threads
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	/**
+	 * The number of threads used to search the solution of a single batch
+	 * @return the number of threads
+	 */
+	public int getSearchWorkers() {
+		return searchWorkers;
+	}
+
+	public void setSearchWorkers(int searchWorkers) {
+		this.searchWorkers = searchWorkers;
+	}
+
+	/**
+	 * The engine used to solve every batch, AUTO picks it from the features of each batch
+	 * @return the engine
+	 */
+	public SolverEngine getSolver() {
+		return solver;
+	}
+
+	public void setSolver(SolverEngine solver) {
+		this.solver = solver;
+	}
+
+	/**
+	 * The order the backtracking search visits the customers and tries their preferences
+	 * @return the order
+	 */
+	public SearchOrder getSearchOrder() {
+		return searchOrder;
+	}
+
+	public void setSearchOrder(SearchOrder searchOrder) {
+		this.searchOrder = searchOrder;
+	}
+
+	/**
+	 * Whether the test cases are read, solved and written one at a time
+	 * instead of loading the whole input file
+	 * @return true for the streaming mode
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * The maximum number of test cases waiting to be written in the streaming mode
+	 * @return the size of the queue
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * Whether the input file is parsed directly from memory mapped regions
+	 * instead of being copied into a heap buffer
+	 * @return true to memory map the input file
+	 */
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
+	/**
+	 * Whether the results are also printed to the console
+	 * @return true to print the results to the console
+	 */
+	public boolean isEcho() {
+		return echo;
+	}
+
+	public void setEcho(boolean echo) {
+		this.echo = echo;
+	}
+
+	/**
+	 * The maximum number of solutions kept to be reused by repeated batches, 0 disables the cache
+	 * @return the size of the cache
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * The time for the search of each batch in milliseconds, 0 for no limit.
+	 * When it runs out the best solution found so far is returned
+	 * @return the time limit
+	 */
+	public long getTimeLimitMillis() {
+		return timeLimitMillis;
+	}
+
+	public void setTimeLimitMillis(long timeLimitMillis) {
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * The time for the whole run in milliseconds, 0 for no limit.
+	 * When it runs out the remaining batches return the best solution found so far
+	 * @return the time limit
+	 */
+	public long getRunTimeLimitMillis() {
+		return runTimeLimitMillis;
+	}
+
+	public void setRunTimeLimitMillis(long runTimeLimitMillis) {
+		this.runTimeLimitMillis = runTimeLimitMillis;
+	}
+
+	/**
+	 * The number of nodes of the search of each batch, 0 for no limit
+	 * @return the node limit
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Whether the statistics report of every test case is written next to the output file
+	 * @return true to write the statistics report
+	 */
+	public boolean isStatistics() {
+		return statistics;
+	}
+
+	public void setStatistics(boolean statistics) {
+		this.statistics = statistics;
+	}
+
+	/**
+	 * The local port to run the server on, 0 to solve the input file in this process
+	 * @return the port
+	 */
+	public int getServerPort() {
+		return serverPort;
+	}
+
+	public void setServerPort(int serverPort) {
+		this.serverPort = serverPort;
+	}
+
+	/**
+	 * The local port of the server the input file is sent to, 0 to solve it in this process
+	 * @return the port
+	 */
+	public int getConnectPort() {
+		return connectPort;
+	}
+
+	public void setConnectPort(int connectPort) {
+		this.connectPort = connectPort;
+	}
+
+}
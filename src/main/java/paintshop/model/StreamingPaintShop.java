@@ -0,0 +1,214 @@
+package paintshop.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import paintshop.exceptions.SolverException;
+import paintshop.io.BatchReader;
+import paintshop.io.BatchReaders;
+import paintshop.io.ResultWriter;
+import paintshop.io.StatisticsReport;
+import paintshop.solver.SearchLimits;
+import paintshop.solver.SolutionCache;
+
+/**
+ * Paint Shop that reads, solves and writes one test case at a time instead of loading the whole input file.
+ * A parser thread hands every batch to the solver pool and puts its pending solution into a bounded queue,
+ * and the writer takes the solutions from the queue in input order. The parser blocks when the queue is full,
+ * so only a fixed number of test cases are in memory at any time
+ * @author danielaguado
+ *
+ */
+public class StreamingPaintShop {
+
+	private static final String INTERRUPTED_WHILE_STREAMING = "Interrupted while streaming the batches";
+	private static final String EXCEPTION_SOLVING_BATCH = "Error solving a batch: %s";
+	private static final String PARSER_THREAD_NAME = "paintshop-parser";
+
+	//Marks the end of the input in the queue
+	private static final Future<PaintBatch> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+	private String inputFileName;
+	private String outputFileName;
+	private PaintShopOptions options;
+	private SolutionCache solutionCache;
+	private SearchLimits searchLimits;
+
+	/**
+	 * Constructor that receives the input file, the output file and the options for the run
+	 * @param inputFile The input file path
+	 * @param outputFile The output file path, if null a file name is generated from the current timestamp
+	 * @param options The options for the run
+	 */
+	public StreamingPaintShop(final String inputFile, final String outputFile, final PaintShopOptions options) {
+		this.inputFileName = inputFile;
+		this.outputFileName = outputFile != null ? outputFile : PaintShop.generateFileNameFromTimestamp();
+		this.options = options;
+		this.solutionCache = options.getCacheSize() > 0 ? new SolutionCache(options.getCacheSize()) : null;
+		this.searchLimits = SearchLimits.startingNow(options.getTimeLimitMillis(), options.getNodeLimit(), options.getRunTimeLimitMillis());
+	}
+
+	/**
+	 * Constructor for a run whose input and output are provided by the caller, i.e. a connection to the server.
+	 * The solution cache can be shared with other runs
+	 * @param options The options for the run
+	 * @param solutionCache The cache of solutions or null to disable it
+	 */
+	public StreamingPaintShop(final PaintShopOptions options, final SolutionCache solutionCache) {
+		this.options = options;
+		this.solutionCache = solutionCache;
+		this.searchLimits = SearchLimits.startingNow(options.getTimeLimitMillis(), options.getNodeLimit(), options.getRunTimeLimitMillis());
+	}
+
+	/**
+	 * Streams every test case from the input file to the output file.
+	 * Each "Case #N" line is written as soon as it and the previous cases are solved,
+	 * if the input is invalid the cases before the error are written before the exception is thrown
+	 */
+	public void run() {
+		ExecutorService solvers = Executors.newFixedThreadPool(options.getWorkers());
+		BatchReader reader = BatchReaders.open(inputFileName, options);
+
+		//The reader is also closed here in case the output file can't be created
+		try (BatchReader input = reader;
+				ResultWriter writer = new ResultWriter(outputFileName, options.isEcho());
+				StatisticsReport report = options.isStatistics() ? new StatisticsReport(outputFileName) : null) {
+			stream(input, writer, report, solvers);
+		} finally {
+			solvers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Streams every test case from the reader to the writer, solving them in a pool shared with other runs.
+	 * The reader is closed at the end of the input, the writer is left open for the caller
+	 * @param reader The reader of the input
+	 * @param writer The writer of the results
+	 * @param solvers The solver pool, it isn't shut down
+	 */
+	public void stream(final BatchReader reader, final ResultWriter writer, final ExecutorService solvers) {
+		stream(reader, writer, null, solvers);
+	}
+
+	/**
+	 * Runs the parser stage in its own thread and the writer stage in the calling thread.
+	 * If the writer stops before the end of the input the solutions still pending are cancelled
+	 * @param reader The reader of the input
+	 * @param writer The writer of the results
+	 * @param report The statistics report or null
+	 * @param solvers The solver pool
+	 */
+	private void stream(final BatchReader reader, final ResultWriter writer, final StatisticsReport report, final ExecutorService solvers) {
+		BlockingQueue<Future<PaintBatch>> pendingSolutions = new ArrayBlockingQueue<>(options.getQueueSize());
+
+		Thread parser = new Thread(() -> parseBatches(reader, solvers, pendingSolutions), PARSER_THREAD_NAME);
+		parser.setDaemon(true);
+		parser.start();
+
+		boolean completed = false;
+		try {
+			writeSolutions(pendingSolutions, writer, report);
+			completed = true;
+		} finally {
+			if (!completed) {
+				parser.interrupt();
+				for (Future<PaintBatch> pending : pendingSolutions) {
+					pending.cancel(true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parser stage, reads every batch and submits it to the solvers
+	 * @param reader The reader of the input file
+	 * @param solvers The solver pool
+	 * @param pendingSolutions The queue of solutions in input order
+	 */
+	private void parseBatches(final BatchReader reader, final ExecutorService solvers, final BlockingQueue<Future<PaintBatch>> pendingSolutions) {
+		try (BatchReader batches = reader) {
+			while (batches.hasNextBatch()) {
+				long start = System.nanoTime();
+				PaintBatch batch = batches.nextBatch();
+				batch.getStatistics().setParseNanos(System.nanoTime() - start);
+				batch.setSearchWorkers(options.getSearchWorkers());
+				batch.setSolver(options.getSolver());
+				batch.setSearchOrder(options.getSearchOrder());
+				batch.setSolutionCache(solutionCache);
+				batch.setSearchLimits(searchLimits);
+				pendingSolutions.put(solvers.submit(batch::solve, batch));
+			}
+			pendingSolutions.put(END_OF_INPUT);
+		} catch (InterruptedException e) {
+			//The writer has stopped, nobody is waiting for more batches
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			//Handed to the writer so it's thrown after the cases that were read correctly
+			CompletableFuture<PaintBatch> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			try {
+				pendingSolutions.put(failed);
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Writer stage, writes every solution in input order as soon as it's ready.
+	 * The results are buffered while the next solutions are already available
+	 * and flushed when the writer would have to wait for the next one.
+	 * If there is a statistics report the row of each case is added to it after writing the case
+	 * @param pendingSolutions The queue of solutions in input order
+	 * @param writer The writer of the results
+	 * @param report The statistics report or null
+	 */
+	private void writeSolutions(final BlockingQueue<Future<PaintBatch>> pendingSolutions, final ResultWriter writer,
+			final StatisticsReport report) {
+		try {
+			int caseNumber = 1;
+			for (Future<PaintBatch> solution = pendingSolutions.take(); solution != END_OF_INPUT; solution = nextSolution(pendingSolutions, writer)) {
+				PaintBatch batch = solution.get();
+				long start = System.nanoTime();
+				writer.writeCase(caseNumber, batch);
+				batch.getStatistics().setOutputNanos(System.nanoTime() - start);
+				if (report != null) {
+					report.writeCase(caseNumber, batch);
+				}
+				caseNumber++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SolverException(INTERRUPTED_WHILE_STREAMING);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new SolverException(EXCEPTION_SOLVING_BATCH, e.getCause().getMessage());
+		}
+	}
+
+	/**
+	 * Takes the next solution from the queue, flushing the writer first if it isn't ready yet
+	 * @param pendingSolutions The queue of solutions in input order
+	 * @param writer The writer
+	 * @return the next solution
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private Future<PaintBatch> nextSolution(final BlockingQueue<Future<PaintBatch>> pendingSolutions, final ResultWriter writer)
+			throws InterruptedException {
+		Future<PaintBatch> next = pendingSolutions.peek();
+		if (next == null || !next.isDone()) {
+			writer.flush();
+		}
+		return pendingSolutions.take();
+	}
+}
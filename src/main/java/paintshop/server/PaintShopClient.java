@@ -0,0 +1,117 @@
+package paintshop.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.exceptions.OutputFileException;
+import paintshop.exceptions.SolverException;
+
+/**
+ * Client of the {@link PaintShopServer} with the same behaviour as solving the input file locally:
+ * it sends the input file to the server and writes the results to the output file,
+ * and to the console if requested, throwing the same exceptions when the input is invalid
+ * @author danielaguado
+ *
+ */
+public class PaintShopClient {
+
+	private static final String EXCEPTION_READING_INPUT_FILE = "Exception reading the input file %s";
+	private static final String EXCEPTION_OUTPUT_FILE = "Error writing the output file %s, the exception was: %s";
+	private static final String EXCEPTION_CONNECTING = "Error communicating with the server on port %s: %s";
+	private static final String MESSAGE = "%s";
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final String SENDER_THREAD_NAME = "paintshop-client-sender";
+
+	private int port;
+	private volatile IOException sendError;
+
+	/**
+	 * Constructor that receives the port of the server on the loopback address
+	 * @param port The port
+	 */
+	public PaintShopClient(final int port) {
+		this.port = port;
+	}
+
+	/**
+	 * Sends the input file to the server and writes the results as they arrive
+	 * @param inputFile The input file path
+	 * @param outputFile The output file path
+	 * @param echoToConsole true to also print the results to the console
+	 */
+	public void solve(final String inputFile, final String outputFile, final boolean echoToConsole) {
+		InputStream input;
+		try {
+			input = new FileInputStream(inputFile);
+		} catch (IOException e) {
+			throw new InvalidInputException(EXCEPTION_READING_INPUT_FILE, e.getMessage());
+		}
+
+		String errorLine = null;
+		try (InputStream in = input; Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			//The input is sent while the results are read, otherwise both sides could block on full socket buffers
+			Thread sender = new Thread(() -> send(in, socket), SENDER_THREAD_NAME);
+			sender.setDaemon(true);
+			sender.start();
+
+			BufferedReader results = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			try (BufferedWriter output = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+				for (String line = results.readLine(); line != null; line = results.readLine()) {
+					if (line.startsWith(PaintShopServer.INVALID_INPUT_PREFIX) || line.startsWith(PaintShopServer.ERROR_PREFIX)) {
+						errorLine = line;
+						break;
+					}
+					output.write(line);
+					output.newLine();
+					if (echoToConsole) {
+						System.out.println(line);
+					}
+				}
+			} catch (IOException e) {
+				throw new OutputFileException(EXCEPTION_OUTPUT_FILE, outputFile, e.getMessage());
+			}
+		} catch (IOException e) {
+			throw new SolverException(EXCEPTION_CONNECTING, String.valueOf(port), e.getMessage());
+		}
+
+		if (errorLine == null && sendError != null) {
+			throw new SolverException(EXCEPTION_CONNECTING, String.valueOf(port), sendError.getMessage());
+		}
+		if (errorLine != null) {
+			if (errorLine.startsWith(PaintShopServer.INVALID_INPUT_PREFIX)) {
+				throw new InvalidInputException(MESSAGE, errorLine.substring(PaintShopServer.INVALID_INPUT_PREFIX.length()));
+			}
+			throw new SolverException(MESSAGE, errorLine.substring(PaintShopServer.ERROR_PREFIX.length()));
+		}
+	}
+
+	/**
+	 * Sends the input file and closes the output of the connection so the server knows the input is complete
+	 * @param input The input file
+	 * @param socket The connection
+	 */
+	private void send(final InputStream input, final Socket socket) {
+		try {
+			OutputStream request = socket.getOutputStream();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+				request.write(buffer, 0, read);
+			}
+			socket.shutdownOutput();
+		} catch (IOException e) {
+			//The server may have stopped reading after an invalid line, its error line is reported instead
+			sendError = e;
+		}
+	}
+}
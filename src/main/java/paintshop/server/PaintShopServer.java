@@ -0,0 +1,160 @@
+package paintshop.server;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.exceptions.SolverException;
+import paintshop.io.BatchReaders;
+import paintshop.io.ResultWriter;
+import paintshop.model.PaintShopOptions;
+import paintshop.model.StreamingPaintShop;
+import paintshop.solver.SolutionCache;
+
+/**
+ * Long running Paint Shop that listens on a local port, so the JVM is started and warmed up only once.
+ * Each connection sends an input file in the text or the binary format and closes its output,
+ * the server streams back the "Case #N" lines as they are solved.
+ * If the input is invalid or a batch can't be solved, the results of the previous cases are followed by a line
+ * starting with INVALID_INPUT_PREFIX or ERROR_PREFIX and the message.
+ * Every connection shares the solver pool and the solution cache
+ * @author danielaguado
+ *
+ */
+public class PaintShopServer implements AutoCloseable {
+
+	public static final String INVALID_INPUT_PREFIX = "INVALID_INPUT: ";
+	public static final String ERROR_PREFIX = "ERROR: ";
+
+	private static final String EXCEPTION_STARTING_SERVER = "Error starting the server on port %s: %s";
+	private static final String CONNECTION_DESCRIPTION = "connection from %s";
+	private static final String ACCEPTOR_THREAD_NAME = "paintshop-server";
+
+	private ServerSocket serverSocket;
+	private PaintShopOptions options;
+	private ExecutorService solvers;
+	private ExecutorService connections;
+	private SolutionCache solutionCache;
+
+	/**
+	 * Constructor that binds the server to the loopback address
+	 * @param port The port, 0 chooses a free one
+	 * @param options The options used to solve the input of every connection
+	 */
+	public PaintShopServer(final int port, final PaintShopOptions options) {
+		try {
+			this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		} catch (IOException e) {
+			throw new SolverException(EXCEPTION_STARTING_SERVER, String.valueOf(port), e.getMessage());
+		}
+		this.options = options;
+		this.solvers = Executors.newFixedThreadPool(options.getWorkers());
+		this.connections = Executors.newCachedThreadPool();
+		this.solutionCache = options.getCacheSize() > 0 ? new SolutionCache(options.getCacheSize()) : null;
+	}
+
+	/**
+	 * The port the server is listening on
+	 * @return the port
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Accepts connections until the server is closed, each one is served in its own thread
+	 */
+	public void run() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.execute(() -> serve(socket));
+			} catch (SocketException e) {
+				//The server socket was closed
+			} catch (IOException e) {
+				//The failed connection is dropped, the server keeps accepting the next ones
+			}
+		}
+	}
+
+	/**
+	 * Accepts connections in a background thread
+	 */
+	public void start() {
+		Thread acceptor = new Thread(this::run, ACCEPTOR_THREAD_NAME);
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Solves the input sent by a connection and streams the results back
+	 * @param socket The connection
+	 */
+	private void serve(final Socket socket) {
+		try (Socket connection = socket) {
+			//The reader and the writer don't close the socket, it's closed once the error line is written
+			InputStream input = new FilterInputStream(connection.getInputStream()) {
+
+				@Override
+				public void close() {
+					//Closed with the socket
+				}
+			};
+			OutputStream output = new FilterOutputStream(connection.getOutputStream()) {
+
+				@Override
+				public void write(byte[] bytes, int offset, int length) throws IOException {
+					out.write(bytes, offset, length);
+				}
+
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+			};
+
+			String errorLine = null;
+			String description = String.format(CONNECTION_DESCRIPTION, connection.getRemoteSocketAddress());
+			try (ResultWriter writer = new ResultWriter(Channels.newChannel(output), description)) {
+				new StreamingPaintShop(options, solutionCache).stream(BatchReaders.open(input, description), writer, solvers);
+			} catch (InvalidInputException e) {
+				errorLine = INVALID_INPUT_PREFIX + e.getMessage();
+			} catch (RuntimeException e) {
+				errorLine = ERROR_PREFIX + e.getMessage();
+			}
+
+			if (errorLine != null) {
+				output.write((errorLine + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+				output.flush();
+			}
+		} catch (IOException e) {
+			//The client went away, there is nobody to report the error to
+		}
+	}
+
+	/**
+	 * Stops accepting connections and stops the solver pool
+	 */
+	@Override
+	public void close() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			//Already closed
+		} finally {
+			connections.shutdownNow();
+			solvers.shutdownNow();
+		}
+	}
+}
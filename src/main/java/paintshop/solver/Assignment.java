@@ -0,0 +1,159 @@
+package paintshop.solver;
+
+import paintshop.model.ColourType;
+
+/**
+ * Dense store of the finish assigned to each colour of a batch.
+ * Values are kept in a byte array indexed by colour number and every assignment
+ * is pushed to a trail, so going back to a previous state only undoes the
+ * assignments made after it. It also keeps the running number of MATTE colours
+ * and two bitsets with the GLOSSY and the MATTE colours to check customers word by word
+ * @author danielaguado
+ *
+ */
+public class Assignment {
+
+	public static final byte UNASSIGNED = 0;
+	public static final byte GLOSSY = 1;
+	public static final byte MATTE = 2;
+
+	private static final int WORD_SHIFT = 6;
+
+	private byte[] values;
+	private int[] trail;
+	private int trailSize;
+	private int matteCount;
+	private long[] glossyWords;
+	private long[] matteWords;
+
+	/**
+	 * Constructor that creates an empty assignment
+	 * @param maxColour The highest colour number that can be assigned
+	 */
+	public Assignment(final int maxColour) {
+		this.values = new byte[maxColour + 1];
+		this.trail = new int[maxColour + 1];
+		this.glossyWords = new long[(maxColour >> WORD_SHIFT) + 1];
+		this.matteWords = new long[(maxColour >> WORD_SHIFT) + 1];
+	}
+
+	/**
+	 * Assigns the finish of the literal to its colour and pushes it to the trail,
+	 * the colour must be unassigned
+	 * @param literal the literal to assign
+	 */
+	public void assign(final int literal) {
+		int colour = Literals.colour(literal);
+		values[colour] = (byte) (Literals.type(literal) + 1);
+		trail[trailSize++] = literal;
+		matteCount += Literals.type(literal);
+		wordsFor(literal)[colour >> WORD_SHIFT] |= 1L << colour;
+	}
+
+	/**
+	 * Unassigns the last assignment in the trail
+	 * @return the literal that was unassigned
+	 */
+	public int pop() {
+		int literal = trail[--trailSize];
+		int colour = Literals.colour(literal);
+		values[colour] = UNASSIGNED;
+		matteCount -= Literals.type(literal);
+		wordsFor(literal)[colour >> WORD_SHIFT] &= ~(1L << colour);
+		return literal;
+	}
+
+	private long[] wordsFor(final int literal) {
+		return Literals.isMatte(literal) ? matteWords : glossyWords;
+	}
+
+	/**
+	 * Undoes every assignment made after the trail had the size passed as parameter
+	 * @param mark the trail size to go back to
+	 */
+	public void undo(final int mark) {
+		while (trailSize > mark) {
+			pop();
+		}
+	}
+
+	/**
+	 * Replaces this assignment with a copy of the one passed as parameter,
+	 * both assignments must have the same size
+	 * @param other the assignment to copy
+	 */
+	public void copyFrom(final Assignment other) {
+		System.arraycopy(other.values, 0, values, 0, values.length);
+		System.arraycopy(other.trail, 0, trail, 0, other.trailSize);
+		trailSize = other.trailSize;
+		matteCount = other.matteCount;
+		System.arraycopy(other.glossyWords, 0, glossyWords, 0, glossyWords.length);
+		System.arraycopy(other.matteWords, 0, matteWords, 0, matteWords.length);
+	}
+
+	public boolean isTrue(final int literal) {
+		return values[Literals.colour(literal)] == Literals.type(literal) + 1;
+	}
+
+	public boolean isFalse(final int literal) {
+		byte value = values[Literals.colour(literal)];
+		return value != UNASSIGNED && value != Literals.type(literal) + 1;
+	}
+
+	public boolean isAssigned(final int colour) {
+		return values[colour] != UNASSIGNED;
+	}
+
+	public boolean isMatte(final int colour) {
+		return values[colour] == MATTE;
+	}
+
+	/**
+	 * The finish assigned to the colour, unassigned colours are GLOSSY
+	 * as they don't need to be MATTE for any customer
+	 * @param colour the colour number
+	 * @return the finish of the colour
+	 */
+	public ColourType getType(final int colour) {
+		return isMatte(colour) ? ColourType.MATTE : ColourType.GLOSSY;
+	}
+
+	/**
+	 * The word of the GLOSSY bitset holding the colours from word * 64 to word * 64 + 63
+	 * @param word the word index
+	 * @return the word, or 0 if it's beyond the assignment
+	 */
+	public long getGlossyWord(final int word) {
+		return word < glossyWords.length ? glossyWords[word] : 0L;
+	}
+
+	/**
+	 * The word of the MATTE bitset holding the colours from word * 64 to word * 64 + 63
+	 * @param word the word index
+	 * @return the word, or 0 if it's beyond the assignment
+	 */
+	public long getMatteWord(final int word) {
+		return word < matteWords.length ? matteWords[word] : 0L;
+	}
+
+	public int getMatteCount() {
+		return matteCount;
+	}
+
+	public int getTrailSize() {
+		return trailSize;
+	}
+
+	/**
+	 * Returns the assigned literal at the position of the trail passed as parameter
+	 * @param index the position in the trail
+	 * @return the literal
+	 */
+	public int getTrailLiteral(final int index) {
+		return trail[index];
+	}
+
+	public int getMaxColour() {
+		return values.length - 1;
+	}
+}
@@ -0,0 +1,420 @@
+package paintshop.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import paintshop.model.Customer;
+
+/**
+ * Branch and bound backtracking solver for batches with any number of MATTE colours per customer.
+ * The customers are explored in the {@link SearchOrder} and each of their preferences is tried in turn,
+ * propagating the colours it forces and discarding the branches that already use
+ * as many MATTE colours as the best solution found so far.
+ * With more than one worker the top of the search tree is split into subtrees that are
+ * explored as fork-join tasks sharing the best MATTE count, so they prune each other.
+ * The search stops when its budget runs out, keeping the best solution found so far
+ * @author danielaguado
+ *
+ */
+public class BacktrackingSolver {
+
+	private static final int SUBTREES_PER_WORKER = 8;
+	private static final int MAX_SPLIT_DEPTH = 16;
+	private static final long NO_SOLUTION = Long.MAX_VALUE;
+	//After propagation an unsatisfied customer has at least two preferences left
+	private static final int MIN_OPTIONS = 2;
+
+	private int numColours;
+	private int[][] literals;
+	private int workers;
+	private SearchBudget budget;
+	private int matteLowerBound;
+	private SearchOrder order;
+
+	/**
+	 * Constructor that receives the batch to be solved and the number of threads for the search
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 explores the whole tree in the calling thread
+	 */
+	public BacktrackingSolver(final int numColours, final List<Customer> customers, final int workers) {
+		this(numColours, customers, workers, SearchBudget.unlimited());
+	}
+
+	/**
+	 * Constructor that receives the batch to be solved, the number of threads and the budget for the search
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 explores the whole tree in the calling thread
+	 * @param budget The budget of the search
+	 */
+	public BacktrackingSolver(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget) {
+		this(numColours, customers, workers, budget, 0);
+	}
+
+	/**
+	 * Constructor that also receives a lower bound of the MATTE colours of the solution,
+	 * i.e. the optimum of the batch before adding customers to it,
+	 * so the search stops as soon as it finds a solution with that many MATTE colours
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 explores the whole tree in the calling thread
+	 * @param budget The budget of the search
+	 * @param matteLowerBound The MATTE colours any solution has at least
+	 */
+	public BacktrackingSolver(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+			final int matteLowerBound) {
+		this(numColours, customers, workers, budget, matteLowerBound, SearchOrder.FILE);
+	}
+
+	/**
+	 * Constructor that also receives the order of the search
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 explores the whole tree in the calling thread
+	 * @param budget The budget of the search
+	 * @param matteLowerBound The MATTE colours any solution has at least
+	 * @param order The order the customers are visited and their preferences tried
+	 */
+	public BacktrackingSolver(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+			final int matteLowerBound, final SearchOrder order) {
+		this.numColours = numColours;
+		this.literals = Literals.toLiterals(customers);
+		this.workers = workers;
+		this.budget = budget;
+		this.matteLowerBound = matteLowerBound;
+		this.order = order;
+		if (order != SearchOrder.FILE) {
+			sortPreferences();
+		}
+	}
+
+	/**
+	 * Sorts the preferences of every customer in the order they are tried: GLOSSY first
+	 * and/or the ones liked by more customers first, keeping the order of the input file otherwise
+	 */
+	private void sortPreferences() {
+		int[] occurrences = new int[(Literals.maxColour(numColours, literals) + 1) * 2];
+		for (int[] customerLiterals : literals) {
+			for (int literal : customerLiterals) {
+				occurrences[literal]++;
+			}
+		}
+
+		//Insertion sort, it's stable and customers have few preferences
+		for (int[] customerLiterals : literals) {
+			for (int i = 1; i < customerLiterals.length; i++) {
+				int literal = customerLiterals[i];
+				int j = i - 1;
+				while (j >= 0 && comparePreferences(literal, customerLiterals[j], occurrences) < 0) {
+					customerLiterals[j + 1] = customerLiterals[j];
+					j--;
+				}
+				customerLiterals[j + 1] = literal;
+			}
+		}
+	}
+
+	private int comparePreferences(final int literal, final int other, final int[] occurrences) {
+		if (order != SearchOrder.OCCURRENCE && Literals.type(literal) != Literals.type(other)) {
+			return Integer.compare(Literals.type(literal), Literals.type(other));
+		}
+		if (order != SearchOrder.GLOSSY_FIRST) {
+			return Integer.compare(occurrences[other], occurrences[literal]);
+		}
+		return 0;
+	}
+
+	/**
+	 * Calculates the batch with the least MATTE colours that satisfies every customer.
+	 * If there are several of them, the first one in the search order is returned,
+	 * no matter how many workers are used.
+	 * If the budget runs out the best solution found so far is returned as not proven optimal
+	 * @return the solution, null if there isn't a solution or none was found, and its status
+	 */
+	public SolverResult solve() {
+		Propagator propagator = new Propagator(numColours, literals);
+		if (propagator.hasRootConflict()) {
+			return new SolverResult(null, SolutionStatus.IMPOSSIBLE);
+		}
+
+		SearchStatistics statistics = new SearchStatistics();
+		Assignment solution;
+		if (workers > 1) {
+			solution = solveInParallel(propagator, statistics);
+		} else {
+			BestSolution best = new BestSolution(propagator.getAssignment().getMaxColour());
+			determineSolution(0, propagator, best, statistics);
+			solution = best.getAssignment();
+		}
+		return new SolverResult(solution, SolutionStatus.of(solution, !budget.isExhausted()), statistics);
+	}
+
+	/**
+	 * Recursive method that finds the best solution by using a branch and bound backtracking algorithm.
+	 * Every colour tried is propagated, so the colours it forces are assigned straight away
+	 * and customers that can no longer be satisfied cut the branch immediately.
+	 * Branches that already have as many MATTE colours as the best solution are discarded
+	 * @param currentCustomerIndex the customer being explored now
+	 * @param propagator The propagator holding the solution being calculated at the current iteration
+	 * @param bestSolution The optimal solution if there is any
+	 * @param statistics The counters of the search
+	 * @return if a better solution was found
+	 */
+	private boolean determineSolution(int currentCustomerIndex, Propagator propagator, BestSolution bestSolution,
+			SearchStatistics statistics) {
+
+		//Stop exploring once the budget runs out, the best solution found so far is kept
+		if (!budget.tryExpand()) {
+			return false;
+		}
+
+		Assignment assignment = propagator.getAssignment();
+		statistics.node(assignment.getTrailSize());
+
+		//Customers already satisfied by the current solution don't need to be explored
+		int customerIndex = nextCustomer(currentCustomerIndex, propagator);
+
+		//Base case, we have reached the last customer with less MATTE colours than the best solution
+		if (customerIndex == literals.length) {
+			bestSolution.update(assignment);
+			return true;
+		}
+
+		boolean solutionFound = false;
+
+		//Try all customer's preferences, unless a solution that can't be improved has been found
+		for (int literal : literals[customerIndex]) {
+			if (bestSolution.isFound() && bestSolution.getMatteCount() <= matteLowerBound) {
+				break;
+			}
+			if (!assignment.isAssigned(Literals.colour(literal))) {
+				int trailMark = assignment.getTrailSize();
+
+				//Add the current colour and the ones it forces to the temporary solution and jump to the next customer
+				//unless they already use as many MATTE colours as the best solution
+				if (propagator.assign(literal) && bestSolution.canBeImprovedBy(assignment.getMatteCount())) {
+					solutionFound |= determineSolution(customerIndex + 1, propagator, bestSolution, statistics);
+					statistics.backtrack();
+				} else {
+					statistics.prune();
+				}
+				//Remove the colours we tried before moving to the next one
+				propagator.undo(trailMark);
+			}
+		}
+		return solutionFound;
+	}
+
+	/**
+	 * Chooses the customer to branch on
+	 * @param currentCustomerIndex the first customer to check in the order of the input file
+	 * @param propagator the propagator holding the current assignment
+	 * @return the index of the customer or the number of customers if all of them are satisfied
+	 */
+	private int nextCustomer(final int currentCustomerIndex, final Propagator propagator) {
+		if (!order.isDynamic()) {
+			return propagator.nextUnsatisfied(currentCustomerIndex);
+		}
+
+		//The unsatisfied customer with the fewest preferences left, the first one in a tie
+		Assignment assignment = propagator.getAssignment();
+		int mostConstrained = literals.length;
+		int fewestOptions = Integer.MAX_VALUE;
+		for (int i = propagator.nextUnsatisfied(0); i < literals.length; i = propagator.nextUnsatisfied(i + 1)) {
+			int options = 0;
+			for (int literal : literals[i]) {
+				if (!assignment.isFalse(literal)) {
+					options++;
+				}
+			}
+			if (options < fewestOptions) {
+				mostConstrained = i;
+				fewestOptions = options;
+				if (options <= MIN_OPTIONS) {
+					break;
+				}
+			}
+		}
+		return mostConstrained;
+	}
+
+	/**
+	 * Splits the search tree into subtrees and explores them in the fork-join pool shared by the searches
+	 * with the same number of workers
+	 * @param rootPropagator The propagator with the assignments forced at the root
+	 * @param statistics The counters where every subtree adds its own
+	 * @return the best solution or null if there isn't a solution
+	 */
+	private Assignment solveInParallel(final Propagator rootPropagator, final SearchStatistics statistics) {
+		List<Subtree> subtrees = splitSearchTree(rootPropagator);
+		if (subtrees.isEmpty()) {
+			return null;
+		}
+
+		AtomicLong sharedBest = new AtomicLong(NO_SOLUTION);
+		Assignment[] subtreeSolutions = new Assignment[subtrees.size()];
+		//Propagators left at the root by finished tasks, reused by the next ones instead of bound to the threads of the shared pool
+		Queue<Propagator> propagators = new ConcurrentLinkedQueue<>();
+
+		List<RecursiveAction> tasks = new ArrayList<>();
+		for (int i = 0; i < subtrees.size(); i++) {
+			tasks.add(new SubtreeTask(i, subtrees.get(i), propagators, sharedBest, subtreeSolutions, statistics));
+		}
+
+		SearchPools.forWorkers(workers).submit(() -> RecursiveAction.invokeAll(tasks)).join();
+
+		long best = sharedBest.get();
+		return best == NO_SOLUTION ? null : subtreeSolutions[(int) best];
+	}
+
+	/**
+	 * Collects the subtrees at the smallest depth that gives enough of them for every worker
+	 * @param propagator The propagator with the assignments forced at the root
+	 * @return the subtrees in search order
+	 */
+	private List<Subtree> splitSearchTree(final Propagator propagator) {
+		List<Subtree> subtrees = new ArrayList<>();
+		int previousSize = -1;
+		for (int depth = 1; depth <= MAX_SPLIT_DEPTH && subtrees.size() < workers * SUBTREES_PER_WORKER
+				&& subtrees.size() != previousSize; depth++) {
+			previousSize = subtrees.size();
+			subtrees = new ArrayList<>();
+			collectSubtrees(0, depth, propagator, new int[depth], 0, subtrees);
+		}
+		return subtrees;
+	}
+
+	/**
+	 * Walks the search tree in the same order as determineSolution down to the depth passed as parameter,
+	 * recording the preferences tried to reach each subtree
+	 * @param currentCustomerIndex the customer being explored now
+	 * @param depth the number of customers left to branch on
+	 * @param propagator the propagator holding the current assignment
+	 * @param path the preferences tried so far, with room for one per level
+	 * @param pathLength the number of preferences in the path
+	 * @param subtrees the list where the subtrees are collected
+	 */
+	private void collectSubtrees(int currentCustomerIndex, int depth, Propagator propagator, int[] path, int pathLength,
+			List<Subtree> subtrees) {
+		int customerIndex = nextCustomer(currentCustomerIndex, propagator);
+		if (depth == 0 || customerIndex == literals.length) {
+			subtrees.add(new Subtree(Arrays.copyOf(path, pathLength), customerIndex));
+			return;
+		}
+
+		Assignment assignment = propagator.getAssignment();
+		for (int literal : literals[customerIndex]) {
+			if (!assignment.isAssigned(Literals.colour(literal))) {
+				int trailMark = assignment.getTrailSize();
+				if (propagator.assign(literal)) {
+					path[pathLength] = literal;
+					collectSubtrees(customerIndex + 1, depth - 1, propagator, path, pathLength + 1, subtrees);
+				}
+				propagator.undo(trailMark);
+			}
+		}
+	}
+
+	/**
+	 * The preferences tried to reach a subtree and the customer where its search starts
+	 */
+	private static class Subtree {
+
+		private int[] path;
+		private int customerIndex;
+
+		private Subtree(final int[] path, final int customerIndex) {
+			this.path = path;
+			this.customerIndex = customerIndex;
+		}
+	}
+
+	/**
+	 * Fork-join task that explores one subtree.
+	 * The best solution is shared between tasks as its MATTE count in the high bits and its subtree index
+	 * in the low bits, so the solution that comes first in the search order wins a tie
+	 * and the result is the same as the sequential search
+	 */
+	private class SubtreeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int index;
+		private transient Subtree subtree;
+		private transient Queue<Propagator> propagators;
+		private transient AtomicLong sharedBest;
+		private transient Assignment[] subtreeSolutions;
+		private transient SearchStatistics totalStatistics;
+
+		private SubtreeTask(final int index, final Subtree subtree, final Queue<Propagator> propagators,
+				final AtomicLong sharedBest, final Assignment[] subtreeSolutions, final SearchStatistics totalStatistics) {
+			this.index = index;
+			this.subtree = subtree;
+			this.propagators = propagators;
+			this.sharedBest = sharedBest;
+			this.subtreeSolutions = subtreeSolutions;
+			this.totalStatistics = totalStatistics;
+		}
+
+		@Override
+		protected void compute() {
+			Propagator propagator = propagators.poll();
+			if (propagator == null) {
+				propagator = new Propagator(numColours, literals);
+			}
+			Assignment assignment = propagator.getAssignment();
+			int rootMark = assignment.getTrailSize();
+
+			SharedBestSolution best = new SharedBestSolution(assignment.getMaxColour());
+			boolean replayed = true;
+			for (int i = 0; i < subtree.path.length && replayed; i++) {
+				replayed = propagator.assign(subtree.path[i]) && best.canBeImprovedBy(assignment.getMatteCount());
+			}
+			SearchStatistics statistics = new SearchStatistics();
+			if (replayed) {
+				determineSolution(subtree.customerIndex, propagator, best, statistics);
+			}
+			propagator.undo(rootMark);
+			propagators.add(propagator);
+			totalStatistics.merge(statistics);
+
+			if (best.isFound()) {
+				subtreeSolutions[index] = best.getAssignment();
+			}
+		}
+
+		/**
+		 * Best solution of the task, pruned against the best solution of every task
+		 */
+		private class SharedBestSolution extends BestSolution {
+
+			private SharedBestSolution(final int maxColour) {
+				super(maxColour);
+			}
+
+			@Override
+			boolean canBeImprovedBy(final int candidateMatteCount) {
+				return encode(candidateMatteCount) < sharedBest.get();
+			}
+
+			@Override
+			void update(final Assignment candidate) {
+				long encoded = encode(candidate.getMatteCount());
+				if (encoded < sharedBest.get()) {
+					super.update(candidate);
+					sharedBest.accumulateAndGet(encoded, Math::min);
+				}
+			}
+
+			private long encode(final int matteCount) {
+				return ((long) matteCount << Integer.SIZE) | index;
+			}
+		}
+	}
+}
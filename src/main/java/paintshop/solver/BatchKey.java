@@ -0,0 +1,104 @@
+package paintshop.solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import paintshop.model.Customer;
+import paintshop.model.CustomerPreferences;
+
+/**
+ * Canonical form of a batch used as the key of the {@link SolutionCache}.
+ * Two batches have the same key when they have the same number of colours and the same set of customers,
+ * no matter the order of the customers, the order of their preferences or repeated customers and preferences
+ * @author danielaguado
+ *
+ */
+public final class BatchKey {
+
+	private final int[] canonicalForm;
+	private final int hashCode;
+
+	private BatchKey(final int[] canonicalForm) {
+		this.canonicalForm = canonicalForm;
+		this.hashCode = Arrays.hashCode(canonicalForm);
+	}
+
+	/**
+	 * Creates the canonical form of a batch: the number of colours followed by
+	 * the sorted customers, each one as its number of literals and its sorted literals
+	 * @param numColours the number of colours of the batch
+	 * @param customers the customers of the batch, it can be null when there aren't customers
+	 * @return the key
+	 */
+	public static BatchKey of(final int numColours, final List<Customer> customers) {
+		return of(numColours, customers == null ? null : CustomerPreferences.of(customers));
+	}
+
+	/**
+	 * Creates the canonical form of a batch from the flat arrays of its preferences
+	 * @param numColours the number of colours of the batch
+	 * @param preferences the preferences of the customers of the batch, it can be null when there aren't customers
+	 * @return the key
+	 */
+	public static BatchKey of(final int numColours, final CustomerPreferences preferences) {
+		int[][] literals = preferences == null ? new int[0][] : preferences.toLiterals();
+
+		int length = 1;
+		for (int i = 0; i < literals.length; i++) {
+			literals[i] = sortedDistinct(literals[i]);
+			length += literals[i].length + 1;
+		}
+		Arrays.sort(literals, BatchKey::compare);
+
+		int[] canonicalForm = new int[length];
+		int position = 0;
+		canonicalForm[position++] = numColours;
+		for (int i = 0; i < literals.length; i++) {
+			if (i > 0 && Arrays.equals(literals[i], literals[i - 1])) {
+				continue;
+			}
+			canonicalForm[position++] = literals[i].length;
+			System.arraycopy(literals[i], 0, canonicalForm, position, literals[i].length);
+			position += literals[i].length;
+		}
+		return new BatchKey(position == length ? canonicalForm : Arrays.copyOf(canonicalForm, position));
+	}
+
+	private static int[] sortedDistinct(final int[] values) {
+		Arrays.sort(values);
+		int distinct = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (i == 0 || values[i] != values[i - 1]) {
+				values[distinct++] = values[i];
+			}
+		}
+		return distinct == values.length ? values : Arrays.copyOf(values, distinct);
+	}
+
+	private static int compare(final int[] first, final int[] second) {
+		int length = Math.min(first.length, second.length);
+		for (int i = 0; i < length; i++) {
+			if (first[i] != second[i]) {
+				return Integer.compare(first[i], second[i]);
+			}
+		}
+		return Integer.compare(first.length, second.length);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BatchKey)) {
+			return false;
+		}
+		BatchKey other = (BatchKey) obj;
+		return hashCode == other.hashCode && Arrays.equals(canonicalForm, other.canonicalForm);
+	}
+}
@@ -0,0 +1,52 @@
+package paintshop.solver;
+
+/**
+ * Best solution found by a search, its values are only copied
+ * when a solution with less MATTE colours is found
+ * @author danielaguado
+ *
+ */
+class BestSolution {
+
+	private Assignment assignment;
+	private int matteCount = Integer.MAX_VALUE;
+	private boolean found;
+
+	BestSolution(final int maxColour) {
+		this.assignment = new Assignment(maxColour);
+	}
+
+	/**
+	 * Determines if a branch with the number of MATTE colours passed as parameter
+	 * can still lead to a better solution
+	 * @param candidateMatteCount the number of MATTE colours in the branch
+	 * @return true if the branch must be explored
+	 */
+	boolean canBeImprovedBy(final int candidateMatteCount) {
+		return candidateMatteCount < matteCount;
+	}
+
+	/**
+	 * Keeps a copy of the candidate if it has less MATTE colours than the best solution
+	 * @param candidate the solution found
+	 */
+	void update(final Assignment candidate) {
+		if (canBeImprovedBy(candidate.getMatteCount())) {
+			assignment.copyFrom(candidate);
+			matteCount = candidate.getMatteCount();
+			found = true;
+		}
+	}
+
+	boolean isFound() {
+		return found;
+	}
+
+	int getMatteCount() {
+		return matteCount;
+	}
+
+	Assignment getAssignment() {
+		return found ? assignment : null;
+	}
+}
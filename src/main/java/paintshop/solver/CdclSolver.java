@@ -0,0 +1,630 @@
+package paintshop.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import paintshop.model.ColourType;
+import paintshop.model.Customer;
+import paintshop.model.CustomerPreferences;
+
+/**
+ * Conflict driven clause learning solver for batches with any number of MATTE colours per customer.
+ * Each customer is a clause over the literals of their preferences. Every decision makes a colour GLOSSY,
+ * so colours only become MATTE when a customer forces them, and the colours to decide are taken
+ * in order of activity (VSIDS), bumped by the conflicts they take part in.
+ * When a customer can't be satisfied, the conflict is analysed back to its first unique implication point,
+ * the clause learnt from it is added like a new customer and the search jumps back to the level
+ * where that clause forces a colour, instead of undoing just the last decision.
+ * The search restarts from the top following the Luby sequence, keeping the learnt clauses.
+ * To minimise the MATTE colours, every solution found tightens a bound on the MATTE colours:
+ * turning one more colour MATTE than the bound allows is a conflict explained by the MATTE colours
+ * already assigned. When no solution within the bound is left, the last one is optimal.
+ * The search stops when its budget runs out, keeping the best solution found so far
+ * @author danielaguado
+ *
+ */
+public class CdclSolver {
+
+	private static final int DECISION = -1;
+	private static final int CARDINALITY = -2;
+	private static final int NO_CONFLICT = -1;
+	private static final int NO_BOUND = Integer.MAX_VALUE;
+
+	private static final int RESTART_CONFLICTS = 100;
+	private static final double ACTIVITY_DECAY = 0.95;
+	private static final double ACTIVITY_LIMIT = 1e100;
+	private static final int MIN_LEARNT_LIMIT = 1000;
+	private static final double LEARNT_LIMIT_GROWTH = 1.1;
+	private static final int INITIAL_WATCH_CAPACITY = 4;
+
+	private enum Outcome {
+		SOLUTION, NO_SOLUTION, BUDGET_EXHAUSTED
+	}
+
+	private int maxColour;
+	private SearchBudget budget;
+
+	//Clauses, the customers first and then the learnt ones. The first two literals of a clause are watched
+	private List<int[]> clauses = new ArrayList<>();
+	private int numOriginalClauses;
+	private int[][] watches;
+	private int[] watchSizes;
+	private boolean rootConflict;
+
+	//Assignment of the colours, with the decision level and the reason of each one
+	private byte[] values;
+	private int[] levels;
+	private int[] reasons;
+	private int[] cardinalityReasons;
+	private int[] trail;
+	private int trailSize;
+	private int propagationHead;
+	private int[] levelStarts;
+	private int decisionLevel;
+	private int[] matteColours;
+	private int matteCount;
+	private int matteBound = NO_BOUND;
+
+	//Colours not assigned yet, ordered by activity
+	private double[] activities;
+	private double activityIncrement = 1;
+	private int[] heap;
+	private int[] heapPositions;
+	private int heapSize;
+
+	//Scratch state of the conflict analysis
+	private boolean[] seen;
+	private int[] learnt;
+	private int learntSize;
+	private int pending;
+
+	private long conflicts;
+	private double learntLimit;
+	private SearchStatistics statistics = new SearchStatistics();
+
+	/**
+	 * Constructor that receives the batch to be solved and the budget for the search
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param budget The budget of the search
+	 */
+	public CdclSolver(final int numColours, final List<Customer> customers, final SearchBudget budget) {
+		CustomerPreferences preferences = CustomerPreferences.of(customers);
+		this.maxColour = preferences.maxColour(numColours);
+		this.budget = budget;
+
+		int numLiterals = (maxColour + 1) * 2;
+		watches = new int[numLiterals][];
+		watchSizes = new int[numLiterals];
+		values = new byte[maxColour + 1];
+		levels = new int[maxColour + 1];
+		reasons = new int[maxColour + 1];
+		cardinalityReasons = new int[maxColour + 1];
+		trail = new int[maxColour + 1];
+		levelStarts = new int[maxColour + 2];
+		matteColours = new int[maxColour + 1];
+		activities = new double[maxColour + 1];
+		heap = new int[maxColour + 1];
+		heapPositions = new int[maxColour + 1];
+		Arrays.fill(heapPositions, -1);
+		seen = new boolean[maxColour + 1];
+		learnt = new int[maxColour + 1];
+
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		for (int i = 0; i < preferences.size(); i++) {
+			addCustomer(Arrays.copyOfRange(literals, offsets[i], offsets[i + 1]));
+		}
+		numOriginalClauses = clauses.size();
+		learntLimit = Math.max(MIN_LEARNT_LIMIT, numOriginalClauses / 3.0);
+	}
+
+	/**
+	 * Adds the clause of a customer, without repeated preferences.
+	 * Customers liking both finishes of a colour are always satisfied and aren't added,
+	 * customers with a single preference force it straight away
+	 * @param customerLiterals A copy of the preferences of the customer, sorted in place
+	 */
+	private void addCustomer(final int[] customerLiterals) {
+		int[] clause = customerLiterals;
+		Arrays.sort(clause);
+		int size = 0;
+		for (int i = 0; i < clause.length; i++) {
+			if (size > 0 && clause[i] == clause[size - 1]) {
+				continue;
+			}
+			if (size > 0 && clause[i] == Literals.negate(clause[size - 1])) {
+				return;
+			}
+			clause[size++] = clause[i];
+		}
+		clause = Arrays.copyOf(clause, size);
+
+		for (int literal : clause) {
+			int colour = Literals.colour(literal);
+			activities[colour] += 1;
+			if (heapPositions[colour] < 0) {
+				heapInsert(colour);
+			} else {
+				heapUp(heapPositions[colour]);
+			}
+		}
+
+		if (clause.length == 1) {
+			if (isFalse(clause[0]) || (!isTrue(clause[0]) && !enqueue(clause[0], DECISION))) {
+				rootConflict = true;
+			}
+			return;
+		}
+		clauses.add(clause);
+		watch(clause[0], clauses.size() - 1);
+		watch(clause[1], clauses.size() - 1);
+	}
+
+	/**
+	 * Calculates the batch with the least MATTE colours that satisfies every customer
+	 * @return the solution, null if there isn't a solution or none was found, and its status
+	 */
+	public SolverResult solve() {
+		if (rootConflict || propagate() != NO_CONFLICT) {
+			return new SolverResult(null, SolutionStatus.IMPOSSIBLE, statistics);
+		}
+
+		Assignment best = null;
+		while (true) {
+			Outcome outcome = search();
+			if (outcome == Outcome.SOLUTION) {
+				best = currentSolution();
+				if (matteCount == 0) {
+					return new SolverResult(best, SolutionStatus.OPTIMAL, statistics);
+				}
+				//Only solutions with fewer MATTE colours are searched from now on
+				matteBound = matteCount - 1;
+				backjump(0);
+				if (matteCount > matteBound) {
+					return new SolverResult(best, SolutionStatus.OPTIMAL, statistics);
+				}
+			} else if (outcome == Outcome.NO_SOLUTION) {
+				return new SolverResult(best, SolutionStatus.of(best, true), statistics);
+			} else {
+				return new SolverResult(best, SolutionStatus.of(best, false), statistics);
+			}
+		}
+	}
+
+	/**
+	 * Searches a solution within the current bound of MATTE colours
+	 * @return the outcome of the search
+	 */
+	private Outcome search() {
+		int restarts = 0;
+		long restartConflicts = conflicts + RESTART_CONFLICTS * luby(restarts);
+		int conflict = NO_CONFLICT;
+
+		while (true) {
+			if (conflict == NO_CONFLICT) {
+				conflict = propagate();
+			}
+
+			if (conflict != NO_CONFLICT) {
+				conflicts++;
+				statistics.backtrack();
+				if (decisionLevel == 0) {
+					return Outcome.NO_SOLUTION;
+				}
+				conflict = learn(analyze(conflict));
+				decayActivities();
+				continue;
+			}
+
+			if (conflicts >= restartConflicts) {
+				backjump(0);
+				restarts++;
+				restartConflicts = conflicts + RESTART_CONFLICTS * luby(restarts);
+				if (clauses.size() - numOriginalClauses > learntLimit) {
+					reduceLearnt();
+				}
+			}
+
+			int colour = nextDecision();
+			if (colour == 0) {
+				return Outcome.SOLUTION;
+			}
+			if (!budget.tryExpand()) {
+				return Outcome.BUDGET_EXHAUSTED;
+			}
+			statistics.node(trailSize);
+			levelStarts[++decisionLevel] = trailSize;
+			enqueue(Literals.of(colour, ColourType.GLOSSY.type()), DECISION);
+		}
+	}
+
+	/**
+	 * Propagates every assignment in the trail to the clauses watching the literals it makes false
+	 * @return the index of a clause with every literal false, or NO_CONFLICT
+	 */
+	private int propagate() {
+		while (propagationHead < trailSize) {
+			int falseLiteral = Literals.negate(trail[propagationHead++]);
+			int[] watching = watches[falseLiteral];
+			int size = watchSizes[falseLiteral];
+			int kept = 0;
+
+			for (int i = 0; i < size; i++) {
+				int clauseIndex = watching[i];
+				int[] clause = clauses.get(clauseIndex);
+				//Keep the false literal in the second position
+				if (clause[0] == falseLiteral) {
+					clause[0] = clause[1];
+					clause[1] = falseLiteral;
+				}
+				if (isTrue(clause[0])) {
+					watching[kept++] = clauseIndex;
+					continue;
+				}
+
+				if (moveWatch(clause, clauseIndex)) {
+					continue;
+				}
+
+				//Every literal but the first one is false: the clause is a conflict or forces its first literal
+				watching[kept++] = clauseIndex;
+				if (isFalse(clause[0]) || !enqueue(clause[0], clauseIndex)) {
+					System.arraycopy(watching, i + 1, watching, kept, size - i - 1);
+					watchSizes[falseLiteral] = kept + size - i - 1;
+					return clauseIndex;
+				}
+			}
+			watchSizes[falseLiteral] = kept;
+		}
+		return NO_CONFLICT;
+	}
+
+	/**
+	 * Looks for a literal that isn't false to watch instead of the second one
+	 * @param clause The clause
+	 * @param clauseIndex The index of the clause
+	 * @return true if the watch was moved
+	 */
+	private boolean moveWatch(final int[] clause, final int clauseIndex) {
+		for (int k = 2; k < clause.length; k++) {
+			if (!isFalse(clause[k])) {
+				int literal = clause[k];
+				clause[k] = clause[1];
+				clause[1] = literal;
+				watch(literal, clauseIndex);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Assigns a literal. A MATTE literal beyond the bound of MATTE colours isn't assigned,
+	 * its colour is made GLOSSY instead, explained by the MATTE colours already assigned
+	 * @param literal The literal
+	 * @param reason The clause that forces it, DECISION or CARDINALITY
+	 * @return false if the bound of MATTE colours didn't allow the literal
+	 */
+	private boolean enqueue(final int literal, final int reason) {
+		if (Literals.isMatte(literal) && matteCount >= matteBound) {
+			cardinalityReasons[Literals.colour(literal)] = matteCount;
+			assign(Literals.negate(literal), CARDINALITY);
+			statistics.prune();
+			return false;
+		}
+		assign(literal, reason);
+		return true;
+	}
+
+	private void assign(final int literal, final int reason) {
+		int colour = Literals.colour(literal);
+		values[colour] = (byte) (Literals.type(literal) + 1);
+		levels[colour] = decisionLevel;
+		reasons[colour] = reason;
+		trail[trailSize++] = literal;
+		if (Literals.isMatte(literal)) {
+			matteColours[matteCount++] = colour;
+		}
+	}
+
+	/**
+	 * Undoes every assignment made after the decision level passed as parameter
+	 * @param level The decision level to go back to
+	 */
+	private void backjump(final int level) {
+		if (decisionLevel <= level) {
+			return;
+		}
+		int mark = levelStarts[level + 1];
+		while (trailSize > mark) {
+			int literal = trail[--trailSize];
+			int colour = Literals.colour(literal);
+			values[colour] = Assignment.UNASSIGNED;
+			if (Literals.isMatte(literal)) {
+				matteCount--;
+			}
+			if (heapPositions[colour] < 0) {
+				heapInsert(colour);
+			}
+		}
+		propagationHead = trailSize;
+		decisionLevel = level;
+	}
+
+	/**
+	 * Finds the first unique implication point of a conflict, leaving in the learnt array
+	 * its negation followed by the literals of previous levels that led to the conflict
+	 * @param conflict The index of the clause with every literal false
+	 * @return the number of literals of the learnt clause
+	 */
+	private int analyze(final int conflict) {
+		learntSize = 1;
+		pending = 0;
+		int literal = -1;
+		int trailIndex = trailSize - 1;
+		int reason = conflict;
+
+		do {
+			if (reason == CARDINALITY) {
+				//The colour was made GLOSSY because the colours MATTE before it already reached the bound
+				for (int i = 0; i < cardinalityReasons[Literals.colour(literal)]; i++) {
+					addToConflict(Literals.of(matteColours[i], ColourType.GLOSSY.type()));
+				}
+			} else {
+				for (int other : clauses.get(reason)) {
+					if (other != literal) {
+						addToConflict(other);
+					}
+				}
+			}
+
+			//The next literal to resolve is the last one of the current level taking part in the conflict
+			while (!seen[Literals.colour(trail[trailIndex])]) {
+				trailIndex--;
+			}
+			literal = trail[trailIndex--];
+			seen[Literals.colour(literal)] = false;
+			reason = reasons[Literals.colour(literal)];
+			pending--;
+		} while (pending > 0);
+
+		learnt[0] = Literals.negate(literal);
+		for (int i = 1; i < learntSize; i++) {
+			seen[Literals.colour(learnt[i])] = false;
+		}
+		return learntSize;
+	}
+
+	/**
+	 * Adds a false literal of a reason to the conflict, unless its colour was assigned at the top level.
+	 * Literals of the current level are resolved later, the others go into the learnt clause
+	 * @param falseLiteral The literal
+	 */
+	private void addToConflict(final int falseLiteral) {
+		int colour = Literals.colour(falseLiteral);
+		if (seen[colour] || levels[colour] == 0) {
+			return;
+		}
+		seen[colour] = true;
+		bumpActivity(colour);
+		if (levels[colour] == decisionLevel) {
+			pending++;
+		} else {
+			learnt[learntSize++] = falseLiteral;
+		}
+	}
+
+	/**
+	 * Jumps back to the highest level of the learnt clause but the current one,
+	 * adds the clause and assigns the literal it forces
+	 * @param size The number of literals of the learnt clause
+	 * @return the index of the learnt clause if the bound of MATTE colours doesn't allow its literal, or NO_CONFLICT
+	 */
+	private int learn(final int size) {
+		int backjumpLevel = 0;
+		for (int i = 1; i < size; i++) {
+			int level = levels[Literals.colour(learnt[i])];
+			if (level > backjumpLevel) {
+				backjumpLevel = level;
+				int literal = learnt[1];
+				learnt[1] = learnt[i];
+				learnt[i] = literal;
+			}
+		}
+		backjump(backjumpLevel);
+
+		int[] clause = Arrays.copyOf(learnt, size);
+		clauses.add(clause);
+		int clauseIndex = clauses.size() - 1;
+		if (size > 1) {
+			watch(clause[0], clauseIndex);
+			watch(clause[1], clauseIndex);
+		}
+		return enqueue(clause[0], clauseIndex) ? NO_CONFLICT : clauseIndex;
+	}
+
+	/**
+	 * Removes the longest half of the learnt clauses. It's only called at the top level,
+	 * where no reason is ever analysed, so the watches of every clause are rebuilt from scratch
+	 */
+	private void reduceLearnt() {
+		List<int[]> learntClauses = new ArrayList<>(clauses.subList(numOriginalClauses, clauses.size()));
+		learntClauses.sort((first, second) -> Integer.compare(first.length, second.length));
+		int keep = learntClauses.size() / 2;
+		while (keep < learntClauses.size() && learntClauses.get(keep).length <= 2) {
+			keep++;
+		}
+
+		clauses.subList(numOriginalClauses, clauses.size()).clear();
+		clauses.addAll(learntClauses.subList(0, keep));
+		learntLimit *= LEARNT_LIMIT_GROWTH;
+
+		Arrays.fill(watchSizes, 0);
+		for (int i = 0; i < clauses.size(); i++) {
+			int[] clause = clauses.get(i);
+			if (clause.length < 2 || isSatisfied(clause)) {
+				continue;
+			}
+			//At the top level every clause that isn't satisfied has at least two literals that aren't false
+			int watched = 0;
+			for (int k = 0; k < clause.length && watched < 2; k++) {
+				if (!isFalse(clause[k])) {
+					int literal = clause[k];
+					clause[k] = clause[watched];
+					clause[watched++] = literal;
+				}
+			}
+			watch(clause[0], i);
+			watch(clause[1], i);
+		}
+	}
+
+	private boolean isSatisfied(final int[] clause) {
+		for (int literal : clause) {
+			if (isTrue(literal)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isTrue(final int literal) {
+		return values[Literals.colour(literal)] == Literals.type(literal) + 1;
+	}
+
+	private boolean isFalse(final int literal) {
+		int value = values[Literals.colour(literal)];
+		return value != Assignment.UNASSIGNED && value != Literals.type(literal) + 1;
+	}
+
+	private void watch(final int literal, final int clauseIndex) {
+		if (watches[literal] == null) {
+			watches[literal] = new int[INITIAL_WATCH_CAPACITY];
+		} else if (watchSizes[literal] == watches[literal].length) {
+			watches[literal] = Arrays.copyOf(watches[literal], watchSizes[literal] * 2);
+		}
+		watches[literal][watchSizes[literal]++] = clauseIndex;
+	}
+
+	/**
+	 * The solution made of the current assignment, the colours not assigned are GLOSSY
+	 * @return the solution
+	 */
+	private Assignment currentSolution() {
+		Assignment solution = new Assignment(maxColour);
+		for (int i = 0; i < matteCount; i++) {
+			solution.assign(Literals.of(matteColours[i], ColourType.MATTE.type()));
+		}
+		return solution;
+	}
+
+	/**
+	 * Takes the unassigned colour with the highest activity
+	 * @return the colour, or 0 if every colour is assigned
+	 */
+	private int nextDecision() {
+		while (heapSize > 0) {
+			int colour = heapRemoveFirst();
+			if (values[colour] == Assignment.UNASSIGNED) {
+				return colour;
+			}
+		}
+		return 0;
+	}
+
+	private void bumpActivity(final int colour) {
+		activities[colour] += activityIncrement;
+		if (activities[colour] > ACTIVITY_LIMIT) {
+			for (int i = 0; i < activities.length; i++) {
+				activities[i] /= ACTIVITY_LIMIT;
+			}
+			activityIncrement /= ACTIVITY_LIMIT;
+		}
+		if (heapPositions[colour] >= 0) {
+			heapUp(heapPositions[colour]);
+		}
+	}
+
+	private void decayActivities() {
+		activityIncrement /= ACTIVITY_DECAY;
+	}
+
+	/**
+	 * The Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, ... used to space the restarts
+	 * @param index The position in the sequence, starting at 0
+	 * @return the value
+	 */
+	static long luby(final int index) {
+		int size = 1;
+		int sequence = 0;
+		while (size < index + 1) {
+			sequence++;
+			size = 2 * size + 1;
+		}
+		int position = index;
+		while (size - 1 != position) {
+			size = (size - 1) >> 1;
+			sequence--;
+			position = position % size;
+		}
+		return 1L << sequence;
+	}
+
+	//Binary max heap of colours by activity, ties broken by colour number so the search is deterministic
+
+	private boolean before(final int colour, final int other) {
+		return activities[colour] > activities[other] || (activities[colour] == activities[other] && colour < other);
+	}
+
+	private void heapInsert(final int colour) {
+		heap[heapSize] = colour;
+		heapPositions[colour] = heapSize;
+		heapUp(heapSize++);
+	}
+
+	private int heapRemoveFirst() {
+		int first = heap[0];
+		heapPositions[first] = -1;
+		heapSize--;
+		if (heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapPositions[heap[0]] = 0;
+			heapDown(0);
+		}
+		return first;
+	}
+
+	private void heapUp(final int position) {
+		int colour = heap[position];
+		int current = position;
+		while (current > 0 && before(colour, heap[(current - 1) >> 1])) {
+			int parent = (current - 1) >> 1;
+			heap[current] = heap[parent];
+			heapPositions[heap[current]] = current;
+			current = parent;
+		}
+		heap[current] = colour;
+		heapPositions[colour] = current;
+	}
+
+	private void heapDown(final int position) {
+		int colour = heap[position];
+		int current = position;
+		while (2 * current + 1 < heapSize) {
+			int child = 2 * current + 1;
+			if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!before(heap[child], colour)) {
+				break;
+			}
+			heap[current] = heap[child];
+			heapPositions[heap[current]] = current;
+			current = child;
+		}
+		heap[current] = colour;
+		heapPositions[colour] = current;
+	}
+}
@@ -0,0 +1,371 @@
+package paintshop.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import paintshop.model.ColourType;
+import paintshop.model.Customer;
+import paintshop.model.CustomerPreferences;
+
+/**
+ * Solver that splits a batch into independent components before searching.
+ * Customers that share a colour, directly or through other customers, belong to the same component
+ * (found with union-find over the colours), and the components don't constrain each other,
+ * so the optimum of the batch is the optimum of every component put together.
+ * Each component is solved on its own with its colours renumbered from 1, by default with the engine
+ * the {@link SolverSelector} picks for it, so a search only multiplies the choices inside the component
+ * instead of across the whole batch.
+ * The customers of a component keep their order, so for small components the solution is the same one
+ * the backtracking search would find for the whole batch. With several workers and several components, the components are solved
+ * in parallel, each with a sequential search, and every component shares the budget of the batch
+ * @author danielaguado
+ *
+ */
+public class DecomposingSolver {
+
+	private int numColours;
+	private List<Customer> customers;
+	private int workers;
+	private SearchBudget budget;
+	private SearchOrder order;
+	private PaintBatchSolver componentSolver;
+
+	/**
+	 * Constructor that receives the batch to be solved, the number of threads and the budget for the search.
+	 * Each component is solved with the engine picked for it
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 solves every component in the calling thread
+	 * @param budget The budget shared by the search of every component
+	 */
+	public DecomposingSolver(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget) {
+		this(numColours, customers, workers, budget, SearchOrder.FILE);
+	}
+
+	/**
+	 * Constructor that also receives the order of the backtracking search of the components
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 solves every component in the calling thread
+	 * @param budget The budget shared by the search of every component
+	 * @param order The order of the backtracking search
+	 */
+	public DecomposingSolver(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+			final SearchOrder order) {
+		this(numColours, customers, workers, budget, order, (componentColours, componentCustomers, searchWorkers, componentBudget, componentOrder) ->
+				SolverSelector.select(componentColours, componentCustomers).solve(componentColours, componentCustomers, searchWorkers,
+						componentBudget, componentOrder));
+	}
+
+	/**
+	 * Constructor that also receives the solver of the components
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads, 1 solves every component in the calling thread
+	 * @param budget The budget shared by the search of every component
+	 * @param order The order of the backtracking search
+	 * @param componentSolver The solver of each component
+	 */
+	public DecomposingSolver(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+			final SearchOrder order, final PaintBatchSolver componentSolver) {
+		this.numColours = numColours;
+		this.customers = customers;
+		this.workers = workers;
+		this.budget = budget;
+		this.order = order;
+		this.componentSolver = componentSolver;
+	}
+
+	/**
+	 * Calculates the batch with the least MATTE colours that satisfies every customer
+	 * @return the solution, null if any component has no solution or none was found, and its status
+	 */
+	public SolverResult solve() {
+		CustomerPreferences preferences = CustomerPreferences.of(customers);
+		int maxColour = preferences.maxColour(numColours);
+		List<Component> components = findComponents(preferences, maxColour);
+		if (components.size() <= 1) {
+			return componentSolver.solve(numColours, customers, workers, budget, order);
+		}
+
+		SolverResult[] results = new SolverResult[components.size()];
+		if (workers > 1) {
+			solveInParallel(components, results);
+		} else {
+			for (int i = 0; i < results.length; i++) {
+				results[i] = components.get(i).solve(1);
+				if (results[i].getStatus() == SolutionStatus.IMPOSSIBLE) {
+					break;
+				}
+			}
+		}
+		return merge(components, results, maxColour);
+	}
+
+	/**
+	 * Solves again only the component of a customer added to a solved batch, keeping the finish of the colours
+	 * of the other components from the previous solution, as the new customer can't change their optimum.
+	 * When the component is solved with the backtracking search, its previous number of MATTE colours
+	 * is used as a lower bound, so the search stops as soon as it reaches it
+	 * @param customerIndex The index of the new customer
+	 * @param previous The solution of the batch before adding the customer, it must have a solution
+	 * @return the solution of the batch with the customer, and its status
+	 */
+	public SolverResult solveComponentOf(final int customerIndex, final SolverResult previous) {
+		CustomerPreferences preferences = CustomerPreferences.of(customers);
+		int maxColour = preferences.maxColour(numColours);
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		int[] parent = unionColours(preferences, maxColour);
+
+		Component component = new Component();
+		int root = find(parent, Literals.colour(literals[offsets[customerIndex]]));
+		for (int i = 0; i < preferences.size(); i++) {
+			if (find(parent, Literals.colour(literals[offsets[i]])) == root) {
+				component.customerIndexes.add(i);
+			}
+		}
+		int[] localColour = new int[maxColour + 1];
+		component.build(preferences, localColour);
+
+		Assignment previousSolution = previous.getSolution();
+		int matteLowerBound = 0;
+		Assignment solution = new Assignment(maxColour);
+		for (int colour = 1; colour <= Math.min(maxColour, previousSolution.getMaxColour()); colour++) {
+			if (!previousSolution.isMatte(colour)) {
+				continue;
+			}
+			if (localColour[colour] == 0) {
+				solution.assign(Literals.of(colour, ColourType.MATTE.type()));
+			} else {
+				matteLowerBound++;
+			}
+		}
+
+		SolverResult result = component.solve(workers, previous.getStatus() == SolutionStatus.OPTIMAL ? matteLowerBound : 0);
+		if (result.getSolution() == null) {
+			return result;
+		}
+		int[] globalColours = component.globalColours;
+		for (int colour = 1; colour < globalColours.length; colour++) {
+			if (result.getSolution().isMatte(colour)) {
+				solution.assign(Literals.of(globalColours[colour], ColourType.MATTE.type()));
+			}
+		}
+		boolean proven = result.getStatus() == SolutionStatus.OPTIMAL && previous.getStatus() == SolutionStatus.OPTIMAL;
+		return new SolverResult(solution, proven ? SolutionStatus.OPTIMAL : SolutionStatus.NOT_PROVEN_OPTIMAL, result.getStatistics());
+	}
+
+	/**
+	 * Groups the customers in components with union-find over their colours
+	 * @param preferences The preferences of every customer
+	 * @param maxColour The highest colour number of the batch
+	 * @return the components, in the order of their first customer
+	 */
+	private List<Component> findComponents(final CustomerPreferences preferences, final int maxColour) {
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		int[] parent = unionColours(preferences, maxColour);
+
+		int[] componentOfRoot = new int[maxColour + 1];
+		Arrays.fill(componentOfRoot, -1);
+		List<Component> components = new ArrayList<>();
+		for (int i = 0; i < preferences.size(); i++) {
+			int root = find(parent, Literals.colour(literals[offsets[i]]));
+			if (componentOfRoot[root] < 0) {
+				componentOfRoot[root] = components.size();
+				components.add(new Component());
+			}
+			components.get(componentOfRoot[root]).customerIndexes.add(i);
+		}
+
+		//Each component numbers its colours from 1 so its assignment only has its own colours
+		int[] localColour = new int[maxColour + 1];
+		for (Component component : components) {
+			component.build(preferences, localColour);
+		}
+		return components;
+	}
+
+	/**
+	 * Joins the colours liked by the same customer with union-find
+	 * @param preferences The preferences of every customer
+	 * @param maxColour The highest colour number of the batch
+	 * @return the parent of each colour, colours with the same root belong to the same component
+	 */
+	private static int[] unionColours(final CustomerPreferences preferences, final int maxColour) {
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		int[] parent = new int[maxColour + 1];
+		for (int colour = 0; colour <= maxColour; colour++) {
+			parent[colour] = colour;
+		}
+		for (int i = 0; i < preferences.size(); i++) {
+			for (int k = offsets[i] + 1; k < offsets[i + 1]; k++) {
+				int first = find(parent, Literals.colour(literals[offsets[i]]));
+				int other = find(parent, Literals.colour(literals[k]));
+				if (first != other) {
+					parent[other] = first;
+				}
+			}
+		}
+		return parent;
+	}
+
+	private static int find(final int[] parent, final int colour) {
+		int root = colour;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		//Path compression, every colour on the way points straight to the root
+		int current = colour;
+		while (parent[current] != root) {
+			int next = parent[current];
+			parent[current] = root;
+			current = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Solves the components in the fork-join pool shared with the backtracking searches, the components left are skipped once one is IMPOSSIBLE
+	 * @param components The components
+	 * @param results The array where the result of each component is stored
+	 */
+	private void solveInParallel(final List<Component> components, final SolverResult[] results) {
+		AtomicBoolean impossible = new AtomicBoolean();
+		List<RecursiveAction> tasks = new ArrayList<>();
+		for (int i = 0; i < components.size(); i++) {
+			int index = i;
+			tasks.add(new RecursiveAction() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					if (!impossible.get()) {
+						results[index] = components.get(index).solve(1);
+						if (results[index].getStatus() == SolutionStatus.IMPOSSIBLE) {
+							impossible.set(true);
+						}
+					}
+				}
+			});
+		}
+
+		SearchPools.forWorkers(workers).submit(() -> RecursiveAction.invokeAll(tasks)).join();
+	}
+
+	/**
+	 * Puts the solutions of the components together, with their colours numbered as in the batch
+	 * @param components The components
+	 * @param results The result of each component, null for the components skipped once one was IMPOSSIBLE
+	 * @param maxColour The highest colour number of the batch
+	 * @return the result of the batch
+	 */
+	private SolverResult merge(final List<Component> components, final SolverResult[] results, final int maxColour) {
+		Assignment solution = new Assignment(maxColour);
+		SearchStatistics statistics = new SearchStatistics();
+		SolutionStatus status = SolutionStatus.OPTIMAL;
+		for (int i = 0; i < results.length; i++) {
+			SolverResult result = results[i];
+			if (result == null) {
+				continue;
+			}
+			statistics.merge(result.getStatistics());
+			if (result.getSolution() == null) {
+				//IMPOSSIBLE wins over a component the budget didn't let finish
+				if (result.getStatus() == SolutionStatus.IMPOSSIBLE || status != SolutionStatus.IMPOSSIBLE) {
+					status = result.getStatus();
+				}
+				continue;
+			}
+			if (!result.getStatus().isProven() && status == SolutionStatus.OPTIMAL) {
+				status = SolutionStatus.NOT_PROVEN_OPTIMAL;
+			}
+
+			int[] globalColours = components.get(i).globalColours;
+			for (int colour = 1; colour < globalColours.length; colour++) {
+				if (result.getSolution().isMatte(colour)) {
+					solution.assign(Literals.of(globalColours[colour], ColourType.MATTE.type()));
+				}
+			}
+		}
+
+		boolean solved = status == SolutionStatus.OPTIMAL || status == SolutionStatus.NOT_PROVEN_OPTIMAL;
+		return new SolverResult(solved ? solution : null, status, statistics);
+	}
+
+	/**
+	 * The customers of a component, with their colours numbered from 1
+	 */
+	private class Component {
+
+		private List<Integer> customerIndexes = new ArrayList<>();
+		private List<Customer> customers;
+		private int[] globalColours;
+
+		/**
+		 * Renumbers the colours of the component in the order they appear and copies the preferences of its customers
+		 * @param preferences The preferences of every customer of the batch
+		 * @param localColour Scratch array from colour number in the batch to colour number in the component
+		 */
+		private void build(final CustomerPreferences preferences, final int[] localColour) {
+			int[] offsets = preferences.getOffsets();
+			int[] literals = preferences.getLiterals();
+			List<Integer> colours = new ArrayList<>();
+			colours.add(0);
+			for (int index : customerIndexes) {
+				for (int k = offsets[index]; k < offsets[index + 1]; k++) {
+					int colour = Literals.colour(literals[k]);
+					if (localColour[colour] == 0) {
+						localColour[colour] = colours.size();
+						colours.add(colour);
+					}
+				}
+			}
+			globalColours = colours.stream().mapToInt(Integer::intValue).toArray();
+
+			CustomerPreferences componentPreferences = new CustomerPreferences();
+			int[] values = new int[1];
+			for (int index : customerIndexes) {
+				int numPreferences = offsets[index + 1] - offsets[index];
+				if (values.length < 1 + numPreferences * 2) {
+					values = new int[1 + numPreferences * 2];
+				}
+				values[0] = numPreferences;
+				for (int j = 0; j < numPreferences; j++) {
+					int literal = literals[offsets[index] + j];
+					values[1 + j * 2] = localColour[Literals.colour(literal)];
+					values[2 + j * 2] = Literals.type(literal);
+				}
+				componentPreferences.add(values, 1 + numPreferences * 2, globalColours.length - 1);
+			}
+			componentPreferences.trimToSize();
+			customers = componentPreferences.asList();
+		}
+
+		private SolverResult solve(final int searchWorkers) {
+			return componentSolver.solve(globalColours.length - 1, customers, searchWorkers, budget, order);
+		}
+
+		/**
+		 * Solves the component with a lower bound on its number of MATTE colours, only used by the backtracking search.
+		 * The engine picked for the component is used directly, without splitting it again
+		 * @param searchWorkers The number of threads of the search
+		 * @param matteLowerBound The number of MATTE colours the search can stop at
+		 * @return the result of the component
+		 */
+		private SolverResult solve(final int searchWorkers, final int matteLowerBound) {
+			int componentColours = globalColours.length - 1;
+			PaintBatchSolver engine = componentSolver == SolverEngine.AUTO ? SolverSelector.select(componentColours, customers) : componentSolver;
+			if (engine == SolverEngine.BACKTRACKING) {
+				return new BacktrackingSolver(componentColours, customers, searchWorkers, budget, matteLowerBound, order).solve();
+			}
+			return engine.solve(componentColours, customers, searchWorkers, budget, order);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package paintshop.solver;
+
+import java.util.List;
+
+import paintshop.model.Colour;
+import paintshop.model.Customer;
+import paintshop.model.CustomerPreferences;
+
+/**
+ * Utility methods to encode a customer preference as a single int literal.
+ * A literal is colour * 2 + finish, so GLOSSY and MATTE of the same colour
+ * are the negation of each other and only differ in the lowest bit
+ * @author danielaguado
+ *
+ */
+public final class Literals {
+
+	/** The highest colour number whose literals, and the arrays indexed by them, fit in an int */
+	public static final int MAX_COLOUR = (Integer.MAX_VALUE >> 1) - 1;
+
+	private Literals() {
+	}
+
+	/**
+	 * Encodes a colour preference as a literal
+	 * @param colour the colour preference
+	 * @return the literal
+	 */
+	public static int of(final Colour colour) {
+		return of(colour.getNumber(), colour.getType().type());
+	}
+
+	/**
+	 * Encodes a colour number and its finish as a literal
+	 * @param colour the colour number
+	 * @param type the finish, 0 for GLOSSY and 1 for MATTE
+	 * @return the literal
+	 */
+	public static int of(final int colour, final int type) {
+		return (colour << 1) | type;
+	}
+
+	public static int colour(final int literal) {
+		return literal >> 1;
+	}
+
+	public static int type(final int literal) {
+		return literal & 1;
+	}
+
+	public static boolean isMatte(final int literal) {
+		return (literal & 1) == 1;
+	}
+
+	/**
+	 * The literal with the same colour and the opposite finish
+	 * @param literal the literal
+	 * @return the negated literal
+	 */
+	public static int negate(final int literal) {
+		return literal ^ 1;
+	}
+
+	/**
+	 * Encodes the preferences of every customer as literals, keeping their order.
+	 * The customers of a batch are copied straight from its flat arrays
+	 * @param customers the customers
+	 * @return an array with the literals of each customer
+	 */
+	public static int[][] toLiterals(final List<Customer> customers) {
+		return CustomerPreferences.of(customers).toLiterals();
+	}
+
+	/**
+	 * Calculates the highest colour number used by the literals
+	 * @param numColours the number of colours in the batch
+	 * @param literals the literals of each customer
+	 * @return the highest colour number
+	 */
+	public static int maxColour(final int numColours, final int[][] literals) {
+		int maxColour = numColours;
+		for (int[] customerLiterals : literals) {
+			for (int literal : customerLiterals) {
+				maxColour = Math.max(maxColour, colour(literal));
+			}
+		}
+		return maxColour;
+	}
+}
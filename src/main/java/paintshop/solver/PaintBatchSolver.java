@@ -0,0 +1,26 @@
+package paintshop.solver;
+
+import java.util.List;
+
+import paintshop.model.Customer;
+
+/**
+ * Strategy that calculates the batch with the least MATTE colours that satisfies every customer.
+ * The engines of the application are the values of {@link SolverEngine}, and any other implementation
+ * can be set on a PaintBatch to solve it instead
+ * @author danielaguado
+ *
+ */
+public interface PaintBatchSolver {
+
+	/**
+	 * Solves a batch
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads the solver can use
+	 * @param budget The budget of the search
+	 * @param order The order of the backtracking search, the other solvers ignore it
+	 * @return the solution, null if there isn't a solution or none was found, and its status
+	 */
+	SolverResult solve(int numColours, List<Customer> customers, int workers, SearchBudget budget, SearchOrder order);
+}
@@ -0,0 +1,198 @@
+package paintshop.solver;
+
+/**
+ * Compact representation of the preferences of every customer in a batch as two bitsets,
+ * one with the colours wanted GLOSSY and another one with the colours wanted MATTE.
+ * Only the 64 bit words that contain a preference are stored for each customer, so checking
+ * a customer against the matching bitsets of an {@link Assignment} is a few AND/OR operations.
+ * It also keeps a bitset of the customers not satisfied yet, updated through occurrence lists from every
+ * preference to its customers as preferences are assigned and undone, so the next unsatisfied customer
+ * is found a word at a time
+ * @author danielaguado
+ *
+ */
+public class PreferenceBitsets {
+
+	private static final int WORD_SHIFT = 6;
+
+	//The words of customer i are stored between customerStart[i] and customerStart[i + 1]
+	private int[] customerStart;
+	private int[] wordIndex;
+	private long[] glossyWanted;
+	private long[] matteWanted;
+
+	//The customers that like literal l are stored between occurrenceStart[l] and occurrenceStart[l + 1]
+	private int[] occurrenceStart;
+	private int[] occurrences;
+	//Bit i is set while customer i isn't satisfied
+	private long[] unsatisfied;
+
+	/**
+	 * Constructor that builds the bitsets and occurrence lists from the preferences of each customer,
+	 * with every customer unsatisfied
+	 * @param literals The preferences of each customer encoded as literals
+	 */
+	public PreferenceBitsets(final int[][] literals) {
+		buildOccurrences(literals);
+		this.unsatisfied = new long[(literals.length + Long.SIZE - 1) >> WORD_SHIFT];
+		for (int i = 0; i < literals.length; i++) {
+			unsatisfied[i >> WORD_SHIFT] |= 1L << i;
+		}
+
+		this.customerStart = new int[literals.length + 1];
+
+		int numWords = 0;
+		for (int i = 0; i < literals.length; i++) {
+			numWords += countWords(literals[i]);
+			customerStart[i + 1] = numWords;
+		}
+
+		this.wordIndex = new int[numWords];
+		this.glossyWanted = new long[numWords];
+		this.matteWanted = new long[numWords];
+
+		for (int i = 0; i < literals.length; i++) {
+			int end = customerStart[i];
+			for (int literal : literals[i]) {
+				int word = Literals.colour(literal) >> WORD_SHIFT;
+				int position = customerStart[i];
+				while (position < end && wordIndex[position] != word) {
+					position++;
+				}
+				if (position == end) {
+					wordIndex[end++] = word;
+				}
+				long bit = 1L << Literals.colour(literal);
+				if (Literals.isMatte(literal)) {
+					matteWanted[position] |= bit;
+				} else {
+					glossyWanted[position] |= bit;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the lists of customers for each literal in a flat array
+	 * @param literals the preferences of each customer
+	 */
+	private void buildOccurrences(final int[][] literals) {
+		int numLiterals = 0;
+		for (int[] customer : literals) {
+			for (int literal : customer) {
+				numLiterals = Math.max(numLiterals, literal + 1);
+			}
+		}
+
+		this.occurrenceStart = new int[numLiterals + 1];
+		for (int[] customer : literals) {
+			for (int literal : customer) {
+				occurrenceStart[literal + 1]++;
+			}
+		}
+		for (int literal = 0; literal < numLiterals; literal++) {
+			occurrenceStart[literal + 1] += occurrenceStart[literal];
+		}
+
+		this.occurrences = new int[occurrenceStart[numLiterals]];
+		int[] next = occurrenceStart.clone();
+		for (int i = 0; i < literals.length; i++) {
+			for (int literal : literals[i]) {
+				occurrences[next[literal]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Counts the different words used by the colours of a customer
+	 * @param customerLiterals the customer's literals
+	 * @return the number of words
+	 */
+	private int countWords(final int[] customerLiterals) {
+		int words = 0;
+		for (int i = 0; i < customerLiterals.length; i++) {
+			int word = Literals.colour(customerLiterals[i]) >> WORD_SHIFT;
+			boolean repeated = false;
+			for (int j = 0; j < i && !repeated; j++) {
+				repeated = Literals.colour(customerLiterals[j]) >> WORD_SHIFT == word;
+			}
+			if (!repeated) {
+				words++;
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Determines whether the assignment satisfies the customer,
+	 * i.e. any colour is assigned with the finish the customer wants
+	 * @param customer the customer index
+	 * @param assignment the assignment
+	 * @return true if the customer is satisfied
+	 */
+	public boolean isSatisfied(final int customer, final Assignment assignment) {
+		for (int i = customerStart[customer]; i < customerStart[customer + 1]; i++) {
+			int word = wordIndex[i];
+			if (((glossyWanted[i] & assignment.getGlossyWord(word)) | (matteWanted[i] & assignment.getMatteWord(word))) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Marks the customers that like the literal as satisfied, it must be called when the literal is assigned
+	 * @param literal the literal assigned
+	 */
+	public void assigned(final int literal) {
+		if (literal + 1 >= occurrenceStart.length) {
+			return;
+		}
+		for (int i = occurrenceStart[literal]; i < occurrenceStart[literal + 1]; i++) {
+			int customer = occurrences[i];
+			unsatisfied[customer >> WORD_SHIFT] &= ~(1L << customer);
+		}
+	}
+
+	/**
+	 * Checks again the customers that like the literal, it must be called once the literal has been unassigned.
+	 * Only the customers without any other preference assigned become unsatisfied
+	 * @param literal the literal unassigned
+	 * @param assignment the assignment without the literal
+	 */
+	public void unassigned(final int literal, final Assignment assignment) {
+		if (literal + 1 >= occurrenceStart.length) {
+			return;
+		}
+		for (int i = occurrenceStart[literal]; i < occurrenceStart[literal + 1]; i++) {
+			int customer = occurrences[i];
+			if (!isSatisfied(customer, assignment)) {
+				unsatisfied[customer >> WORD_SHIFT] |= 1L << customer;
+			}
+		}
+	}
+
+	/**
+	 * Finds the first customer not satisfied by the preferences assigned so far, skipping 64 satisfied customers at a time
+	 * @param fromCustomer the first customer to check
+	 * @return the index of the customer or the number of customers if all of them are satisfied
+	 */
+	public int nextUnsatisfied(final int fromCustomer) {
+		int word = fromCustomer >> WORD_SHIFT;
+		if (word >= unsatisfied.length) {
+			return getNumCustomers();
+		}
+		long bits = unsatisfied[word] & (-1L << fromCustomer);
+		while (bits == 0) {
+			if (++word == unsatisfied.length) {
+				return getNumCustomers();
+			}
+			bits = unsatisfied[word];
+		}
+		return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+	}
+
+	public int getNumCustomers() {
+		return customerStart.length - 1;
+	}
+}
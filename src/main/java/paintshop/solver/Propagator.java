@@ -0,0 +1,185 @@
+package paintshop.solver;
+
+import java.util.Arrays;
+
+/**
+ * Unit propagation engine for the backtracking search.
+ * Each customer watches two of their preferences: while neither of them is ruled out
+ * the customer can't become a conflict or force a colour, so only the customers watching
+ * the finish that has just been ruled out need to be visited.
+ * The {@link PreferenceBitsets} keep the bitset of unsatisfied customers up to date as colours are
+ * assigned and undone, so finding the next customer to branch on skips the satisfied ones a word at a time
+ * @author danielaguado
+ *
+ */
+public class Propagator {
+
+	private static final int INITIAL_WATCH_CAPACITY = 4;
+
+	private int[][] customerLiterals;
+	private PreferenceBitsets preferences;
+
+	private int[][] watches;
+	private int[] watchSizes;
+
+	private Assignment assignment;
+	private int propagationHead;
+	private boolean rootConflict;
+
+	/**
+	 * Constructor that builds the watches and preference bitsets for the customers
+	 * and propagates the customers that only have one preference
+	 * @param numColours The number of colours in the batch
+	 * @param literals The preferences of each customer encoded as literals
+	 */
+	public Propagator(final int numColours, final int[][] literals) {
+		int maxColour = Literals.maxColour(numColours, literals);
+		int numLiterals = (maxColour + 1) * 2;
+
+		this.assignment = new Assignment(maxColour);
+		this.preferences = new PreferenceBitsets(literals);
+		this.watches = new int[numLiterals][];
+		this.watchSizes = new int[numLiterals];
+
+		//The watched preferences are kept in the first two positions, so use a copy
+		//to keep the customer's order of preference untouched
+		this.customerLiterals = new int[literals.length][];
+		for (int i = 0; i < literals.length; i++) {
+			customerLiterals[i] = literals[i].clone();
+			if (customerLiterals[i].length > 1) {
+				watch(customerLiterals[i][0], i);
+				watch(customerLiterals[i][1], i);
+			}
+		}
+
+		for (int i = 0; i < literals.length && !rootConflict; i++) {
+			if (customerLiterals[i].length == 1 && !assign(customerLiterals[i][0])) {
+				rootConflict = true;
+			}
+		}
+	}
+
+	/**
+	 * Determines if the customers with one preference already made the batch impossible
+	 * @return true if there is no solution for the batch
+	 */
+	public boolean hasRootConflict() {
+		return rootConflict;
+	}
+
+	/**
+	 * Assigns the literal and propagates every colour it forces
+	 * @param literal the literal to assign
+	 * @return false if the assignment left a customer with no possible preference
+	 */
+	public boolean assign(final int literal) {
+		if (assignment.isFalse(literal)) {
+			return false;
+		}
+		if (assignment.isTrue(literal)) {
+			return true;
+		}
+		enqueue(literal);
+		return propagate();
+	}
+
+	/**
+	 * Propagates the pending assignments in the trail
+	 * @return false if a conflict was found
+	 */
+	private boolean propagate() {
+		while (propagationHead < assignment.getTrailSize()) {
+			int falseLiteral = Literals.negate(assignment.getTrailLiteral(propagationHead++));
+			int[] watchList = watches[falseLiteral];
+			int size = watchSizes[falseLiteral];
+			int kept = 0;
+
+			for (int i = 0; i < size; i++) {
+				int customer = watchList[i];
+				int[] lits = customerLiterals[customer];
+
+				//Keep the preference that has been ruled out in the second position
+				if (lits[0] == falseLiteral) {
+					lits[0] = lits[1];
+					lits[1] = falseLiteral;
+				}
+
+				if (assignment.isTrue(lits[0]) || !findNewWatch(customer, lits)) {
+					watchList[kept++] = customer;
+
+					if (assignment.isFalse(lits[0])) {
+						//Conflict, keep the remaining watches before leaving
+						for (int j = i + 1; j < size; j++) {
+							watchList[kept++] = watchList[j];
+						}
+						watchSizes[falseLiteral] = kept;
+						return false;
+					}
+					if (!assignment.isTrue(lits[0])) {
+						enqueue(lits[0]);
+					}
+				}
+			}
+			watchSizes[falseLiteral] = kept;
+		}
+		return true;
+	}
+
+	/**
+	 * Looks for a preference of the customer that hasn't been ruled out to replace
+	 * the watched preference in the second position
+	 * @param customer the customer
+	 * @param lits the customer's literals
+	 * @return true if the watch was moved to another preference
+	 */
+	private boolean findNewWatch(final int customer, final int[] lits) {
+		for (int j = 2; j < lits.length; j++) {
+			if (!assignment.isFalse(lits[j])) {
+				int newWatch = lits[j];
+				lits[j] = lits[1];
+				lits[1] = newWatch;
+				watch(newWatch, customer);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void watch(final int literal, final int customer) {
+		if (watches[literal] == null) {
+			watches[literal] = new int[INITIAL_WATCH_CAPACITY];
+		} else if (watchSizes[literal] == watches[literal].length) {
+			watches[literal] = Arrays.copyOf(watches[literal], watchSizes[literal] * 2);
+		}
+		watches[literal][watchSizes[literal]++] = customer;
+	}
+
+	private void enqueue(final int literal) {
+		assignment.assign(literal);
+		preferences.assigned(literal);
+	}
+
+	/**
+	 * Undoes every assignment made after the trail had the size passed as parameter
+	 * @param mark the trail size to go back to
+	 */
+	public void undo(final int mark) {
+		while (assignment.getTrailSize() > mark) {
+			preferences.unassigned(assignment.pop(), assignment);
+		}
+		propagationHead = mark;
+	}
+
+	/**
+	 * Finds the first customer not satisfied by the current assignment
+	 * @param fromCustomer the first customer to check
+	 * @return the index of the customer or the number of customers if all of them are satisfied
+	 */
+	public int nextUnsatisfied(final int fromCustomer) {
+		return preferences.nextUnsatisfied(fromCustomer);
+	}
+
+	public Assignment getAssignment() {
+		return assignment;
+	}
+}
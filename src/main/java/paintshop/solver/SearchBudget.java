@@ -0,0 +1,75 @@
+package paintshop.solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of the search of a single batch: a deadline and a maximum number of nodes.
+ * Once it runs out it stays exhausted, so every branch of the search stops.
+ * It can be shared by the workers searching the same batch
+ * @author danielaguado
+ *
+ */
+public class SearchBudget {
+
+	public static final long NO_LIMIT = Long.MAX_VALUE;
+
+	private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+	private final long deadlineNanos;
+	private final long maxNodes;
+	private final AtomicLong nodes = new AtomicLong();
+	private volatile boolean exhausted;
+
+	/**
+	 * Constructor that receives the limits of the search
+	 * @param deadlineNanos the value of System.nanoTime when the search stops, or NO_LIMIT
+	 * @param maxNodes the maximum number of nodes explored, or NO_LIMIT
+	 */
+	public SearchBudget(final long deadlineNanos, final long maxNodes) {
+		this.deadlineNanos = deadlineNanos;
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * A budget that never runs out
+	 * @return the budget
+	 */
+	public static SearchBudget unlimited() {
+		return new SearchBudget(NO_LIMIT, NO_LIMIT);
+	}
+
+	/**
+	 * Counts a new node of the search if the budget hasn't run out.
+	 * The clock is only read every few nodes
+	 * @return true if the node can be explored
+	 */
+	public boolean tryExpand() {
+		if (exhausted) {
+			return false;
+		}
+		long count = nodes.incrementAndGet();
+		if (count > maxNodes
+				|| (deadlineNanos != NO_LIMIT && count % CLOCK_CHECK_INTERVAL == 1 && System.nanoTime() - deadlineNanos >= 0)) {
+			exhausted = true;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Whether a node was refused because the budget ran out,
+	 * i.e. the search didn't explore the whole search space
+	 * @return true if the budget ran out
+	 */
+	public boolean isExhausted() {
+		return exhausted;
+	}
+
+	/**
+	 * The number of nodes counted, including the refused ones
+	 * @return the number of nodes
+	 */
+	public long getNodes() {
+		return nodes.get();
+	}
+}
@@ -0,0 +1,50 @@
+package paintshop.solver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits of the search of every batch in a run: the time and nodes for each batch
+ * and the deadline of the whole run. The budget of each batch starts when it's created
+ * @author danielaguado
+ *
+ */
+public final class SearchLimits {
+
+	public static final SearchLimits NONE = new SearchLimits(0, 0, SearchBudget.NO_LIMIT);
+
+	private final long batchTimeLimitMillis;
+	private final long nodeLimit;
+	private final long runDeadlineNanos;
+
+	private SearchLimits(final long batchTimeLimitMillis, final long nodeLimit, final long runDeadlineNanos) {
+		this.batchTimeLimitMillis = batchTimeLimitMillis;
+		this.nodeLimit = nodeLimit;
+		this.runDeadlineNanos = runDeadlineNanos;
+	}
+
+	/**
+	 * Creates the limits of a run that starts now
+	 * @param batchTimeLimitMillis the time for each batch in milliseconds, 0 for no limit
+	 * @param nodeLimit the nodes for each batch, 0 for no limit
+	 * @param runTimeLimitMillis the time for the whole run in milliseconds, 0 for no limit
+	 * @return the limits
+	 */
+	public static SearchLimits startingNow(final long batchTimeLimitMillis, final long nodeLimit, final long runTimeLimitMillis) {
+		long runDeadline = runTimeLimitMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(runTimeLimitMillis) : SearchBudget.NO_LIMIT;
+		return new SearchLimits(batchTimeLimitMillis, nodeLimit, runDeadline);
+	}
+
+	/**
+	 * Creates the budget of a batch whose search starts now,
+	 * its deadline is the earliest of the batch and the run deadlines
+	 * @return the budget
+	 */
+	public SearchBudget newBudget() {
+		long deadline = runDeadlineNanos;
+		if (batchTimeLimitMillis > 0) {
+			long batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeLimitMillis);
+			deadline = deadline == SearchBudget.NO_LIMIT || batchDeadline - deadline < 0 ? batchDeadline : deadline;
+		}
+		return new SearchBudget(deadline, nodeLimit > 0 ? nodeLimit : SearchBudget.NO_LIMIT);
+	}
+}
@@ -0,0 +1,64 @@
+package paintshop.solver;
+
+/**
+ * The order in which the backtracking search visits the customers and tries their preferences.
+ * Every order finds a solution with the same number of MATTE colours, but when several solutions
+ * have it the one returned is the first in the search order
+ * @author danielaguado
+ *
+ */
+public enum SearchOrder {
+
+	/** The customers and their preferences in the order of the input file */
+	FILE("file", false),
+
+	/** The customers in the order of the input file, trying their GLOSSY preferences first so good bounds are found early */
+	GLOSSY_FIRST("glossy-first", false),
+
+	/** The customers in the order of the input file, trying first the preferences that satisfy the most customers */
+	OCCURRENCE("occurrence", false),
+
+	/**
+	 * The unsatisfied customer with the fewest preferences left is chosen at every node,
+	 * trying its GLOSSY preferences first and then the ones that satisfy the most customers
+	 */
+	MOST_CONSTRAINED("most-constrained", true);
+
+	private String name;
+	private boolean dynamic;
+
+	SearchOrder(final String name, final boolean dynamic) {
+		this.name = name;
+		this.dynamic = dynamic;
+	}
+
+	/**
+	 * The name of the order in the command line
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Whether the next customer is chosen at every node instead of following the order of the input file
+	 * @return true if the customer is chosen at every node
+	 */
+	public boolean isDynamic() {
+		return dynamic;
+	}
+
+	/**
+	 * Finds an order by its name in the command line
+	 * @param name The name
+	 * @return the order, null if there isn't an order with that name
+	 */
+	public static SearchOrder fromName(final String name) {
+		for (SearchOrder order : values()) {
+			if (order.name.equals(name)) {
+				return order;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,33 @@
+package paintshop.solver;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The ForkJoin pools shared by the parallel searches, one per number of workers, so solving a batch
+ * doesn't start and stop its own threads. The common pool is used when it has the number of workers requested.
+ * Batches solved at the same time with the same number of workers share the threads of the pool
+ * @author danielaguado
+ *
+ */
+final class SearchPools {
+
+	private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+	private SearchPools() {
+	}
+
+	/**
+	 * Returns the shared pool with the number of workers passed as parameter, creating it on the first request.
+	 * Its threads are daemon threads and they end after being idle for a while
+	 * @param workers the number of workers
+	 * @return the pool
+	 */
+	static ForkJoinPool forWorkers(final int workers) {
+		if (workers == ForkJoinPool.getCommonPoolParallelism()) {
+			return ForkJoinPool.commonPool();
+		}
+		return POOLS.computeIfAbsent(workers, ForkJoinPool::new);
+	}
+}
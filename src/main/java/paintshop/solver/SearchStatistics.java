@@ -0,0 +1,92 @@
+package paintshop.solver;
+
+/**
+ * Counters of the search of a batch. Each search thread counts into its own instance,
+ * they are merged when the search ends
+ * @author danielaguado
+ *
+ */
+public class SearchStatistics {
+
+	private long nodes;
+	private long backtracks;
+	private long pruned;
+	private int peakDepth;
+
+	/**
+	 * Counts a node of the search with the number of colours assigned in it
+	 * @param depth the number of colours assigned
+	 */
+	void node(final int depth) {
+		nodes++;
+		if (depth > peakDepth) {
+			peakDepth = depth;
+		}
+	}
+
+	/**
+	 * Counts a branch that was explored and undone
+	 */
+	void backtrack() {
+		backtracks++;
+	}
+
+	/**
+	 * Counts a branch discarded without exploring it, because it can't satisfy every customer
+	 * or it can't improve the best solution
+	 */
+	void prune() {
+		pruned++;
+	}
+
+	/**
+	 * Records the number of colours assigned by a search without nodes, i.e. the linear time solver
+	 * @param depth the number of colours assigned
+	 */
+	void depth(final int depth) {
+		peakDepth = Math.max(peakDepth, depth);
+	}
+
+	/**
+	 * Adds the counters of another search thread
+	 * @param other the counters to add
+	 */
+	synchronized void merge(final SearchStatistics other) {
+		nodes += other.nodes;
+		backtracks += other.backtracks;
+		pruned += other.pruned;
+		peakDepth = Math.max(peakDepth, other.peakDepth);
+	}
+
+	/**
+	 * The number of nodes explored
+	 * @return the number of nodes
+	 */
+	public synchronized long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * The number of branches explored and undone
+	 * @return the number of backtracks
+	 */
+	public synchronized long getBacktracks() {
+		return backtracks;
+	}
+
+	/**
+	 * The number of branches discarded by a conflict or by the bound on the MATTE colours
+	 * @return the number of pruned subtrees
+	 */
+	public synchronized long getPruned() {
+		return pruned;
+	}
+
+	/**
+	 * The greatest number of colours assigned at the same time
+	 * @return the peak assignment depth
+	 */
+	public synchronized int getPeakDepth() {
+		return peakDepth;
+	}
+}
@@ -0,0 +1,257 @@
+package paintshop.solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import paintshop.model.Colour;
+import paintshop.model.ColourType;
+import paintshop.model.Customer;
+import paintshop.model.CustomerPreferences;
+
+/**
+ * Linear time solver for batches where every customer likes at most one MATTE colour.
+ * Starting from an all GLOSSY batch, a colour is only turned into MATTE when a customer
+ * has no other way to be satisfied (Horn-SAT unit propagation), so the result is the
+ * unique solution with the minimum number of MATTE colours.
+ * The propagation state is kept after solving, so customers added later only propagate
+ * the colours they force instead of solving the whole batch again
+ * @author danielaguado
+ *
+ */
+public class SingleMatteSolver {
+
+	private static final int NO_COLOUR = 0;
+
+	private int numColours;
+	private CustomerPreferences preferences;
+
+	//Propagation state, kept to add customers incrementally
+	private Assignment assignment;
+	private int propagationHead;
+	private int numCustomers;
+	private int[] remainingGlossy;
+	private int[] matteWanted;
+	private int[] glossyOccurrenceStart;
+	private int[] glossyOccurrences;
+	private int[][] addedOccurrences;
+	private int[] addedOccurrenceCount;
+	private boolean impossible;
+
+	/**
+	 * Constructor that receives the batch to be solved
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 */
+	public SingleMatteSolver(final int numColours, final List<Customer> customers) {
+		this(numColours, CustomerPreferences.of(customers));
+	}
+
+	/**
+	 * Constructor that receives the batch to be solved in flat arrays
+	 * @param numColours The number of colours in the batch
+	 * @param preferences The preferences of the customers in the batch
+	 */
+	public SingleMatteSolver(final int numColours, final CustomerPreferences preferences) {
+		this.numColours = numColours;
+		this.preferences = preferences;
+	}
+
+	/**
+	 * Determines whether this solver can be used for the customers passed as parameter
+	 * @param customers the customers
+	 * @return true if every customer has at most one MATTE colour in their preferences
+	 */
+	public static boolean supports(final List<Customer> customers) {
+		return supports(CustomerPreferences.of(customers));
+	}
+
+	/**
+	 * Determines whether this solver can be used for the preferences passed as parameter
+	 * @param preferences the preferences of the customers in flat arrays
+	 * @return true if every customer has at most one MATTE colour in their preferences
+	 */
+	public static boolean supports(final CustomerPreferences preferences) {
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		for (int i = 0; i < preferences.size(); i++) {
+			int matteColours = 0;
+			for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+				if (Literals.isMatte(literals[k]) && ++matteColours > 1) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether this solver can be used for a customer
+	 * @param customer the customer
+	 * @return true if the customer has at most one MATTE colour in their preferences
+	 */
+	public static boolean supports(final Customer customer) {
+		int matteColours = 0;
+		for (Colour colour : customer.getColourPreferences()) {
+			if (colour.getType() == ColourType.MATTE) {
+				matteColours++;
+			}
+		}
+		return matteColours <= 1;
+	}
+
+	/**
+	 * Calculates the batch with the least MATTE colours that satisfies every customer
+	 * @return the assignment with the MATTE colours, or null if there isn't a solution
+	 */
+	public Assignment solve() {
+
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		int maxColour = preferences.maxColour(numColours);
+
+		numCustomers = preferences.size();
+		//Number of GLOSSY preferences of each customer that are still GLOSSY in the batch
+		remainingGlossy = new int[numCustomers];
+		matteWanted = new int[numCustomers];
+		glossyOccurrenceStart = new int[maxColour + 2];
+
+		//Count the customers liking each colour GLOSSY so they can be stored in a flat array
+		for (int i = 0; i < numCustomers; i++) {
+			for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+				if (Literals.isMatte(literals[k])) {
+					matteWanted[i] = Literals.colour(literals[k]);
+				} else {
+					remainingGlossy[i]++;
+					glossyOccurrenceStart[Literals.colour(literals[k]) + 1]++;
+				}
+			}
+		}
+		for (int colour = 1; colour <= maxColour + 1; colour++) {
+			glossyOccurrenceStart[colour] += glossyOccurrenceStart[colour - 1];
+		}
+		glossyOccurrences = new int[glossyOccurrenceStart[maxColour + 1]];
+		int[] nextOccurrence = glossyOccurrenceStart.clone();
+		for (int i = 0; i < numCustomers; i++) {
+			for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+				if (!Literals.isMatte(literals[k])) {
+					glossyOccurrences[nextOccurrence[Literals.colour(literals[k])]++] = i;
+				}
+			}
+		}
+
+		//Every colour turned into MATTE is pushed to the trail, which works as the queue of colours to propagate
+		assignment = new Assignment(maxColour);
+		propagationHead = 0;
+
+		//Customers with no GLOSSY preferences force their MATTE colour from the beginning
+		for (int i = 0; i < numCustomers; i++) {
+			if (remainingGlossy[i] == 0 && !forceMatte(i)) {
+				return null;
+			}
+		}
+
+		return propagate() ? assignment : null;
+	}
+
+	/**
+	 * Adds a customer to a solved batch and propagates only the colours the customer forces.
+	 * Adding a customer can only turn more colours into MATTE, so the new solution is
+	 * the previous one plus the propagation of the new customer.
+	 * The customer must have at most one MATTE colour and colours within the batch,
+	 * and the batch must have had a solution
+	 * @param customer the new customer, already added to the list of customers of the batch
+	 * @return the assignment with the MATTE colours, the same instance as before, or null if there isn't a solution anymore
+	 */
+	public Assignment addCustomer(final Customer customer) {
+		if (impossible) {
+			return null;
+		}
+
+		int index = numCustomers++;
+		if (index == remainingGlossy.length) {
+			remainingGlossy = Arrays.copyOf(remainingGlossy, Math.max(1, index * 2));
+			matteWanted = Arrays.copyOf(matteWanted, remainingGlossy.length);
+		}
+		remainingGlossy[index] = 0;
+		matteWanted[index] = NO_COLOUR;
+
+		//Only the GLOSSY preferences still GLOSSY count, the others were already propagated
+		for (Colour colour : customer.getColourPreferences()) {
+			if (colour.getType() == ColourType.MATTE) {
+				matteWanted[index] = colour.getNumber();
+			} else if (!assignment.isMatte(colour.getNumber())) {
+				remainingGlossy[index]++;
+				addOccurrence(colour.getNumber(), index);
+			}
+		}
+
+		if (remainingGlossy[index] == 0 && !forceMatte(index)) {
+			return null;
+		}
+		return propagate() ? assignment : null;
+	}
+
+	/**
+	 * Turns the MATTE colour of a customer without GLOSSY options left into MATTE
+	 * @param customer the customer
+	 * @return false if the customer doesn't like any MATTE colour, so there isn't a solution
+	 */
+	private boolean forceMatte(final int customer) {
+		int forcedColour = matteWanted[customer];
+		if (forcedColour == NO_COLOUR) {
+			impossible = true;
+			return false;
+		}
+		if (!assignment.isMatte(forcedColour)) {
+			assignment.assign(Literals.of(forcedColour, ColourType.MATTE.type()));
+		}
+		return true;
+	}
+
+	/**
+	 * Propagates every colour turned into MATTE to the customers that liked it GLOSSY
+	 * @return false if a customer can't be satisfied
+	 */
+	private boolean propagate() {
+		while (propagationHead < assignment.getTrailSize()) {
+			int colour = Literals.colour(assignment.getTrailLiteral(propagationHead++));
+			for (int j = glossyOccurrenceStart[colour]; j < glossyOccurrenceStart[colour + 1]; j++) {
+				if (!loseGlossyOption(glossyOccurrences[j])) {
+					return false;
+				}
+			}
+			int added = addedOccurrenceCount == null ? 0 : addedOccurrenceCount[colour];
+			for (int j = 0; j < added; j++) {
+				if (!loseGlossyOption(addedOccurrences[colour][j])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean loseGlossyOption(final int customer) {
+		remainingGlossy[customer]--;
+		return remainingGlossy[customer] != 0 || forceMatte(customer);
+	}
+
+	/**
+	 * Records that a customer added after solving likes a colour GLOSSY
+	 * @param colour the colour
+	 * @param customer the customer
+	 */
+	private void addOccurrence(final int colour, final int customer) {
+		if (addedOccurrences == null) {
+			addedOccurrences = new int[glossyOccurrenceStart.length][];
+			addedOccurrenceCount = new int[glossyOccurrenceStart.length];
+		}
+		int count = addedOccurrenceCount[colour];
+		if (addedOccurrences[colour] == null) {
+			addedOccurrences[colour] = new int[2];
+		} else if (count == addedOccurrences[colour].length) {
+			addedOccurrences[colour] = Arrays.copyOf(addedOccurrences[colour], count * 2);
+		}
+		addedOccurrences[colour][count] = customer;
+		addedOccurrenceCount[colour] = count + 1;
+	}
+}
@@ -0,0 +1,90 @@
+package paintshop.solver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the solutions of already solved batches, so repeated batches aren't solved again.
+ * The least recently used solution is evicted when the cache is full.
+ * It can be shared by several threads, a batch is solved outside the lock
+ * so two threads missing the same batch at the same time both solve it
+ * @author danielaguado
+ *
+ */
+public class SolutionCache {
+
+	private final Map<BatchKey, SolverResult> solutions;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Constructor that receives the maximum number of solutions kept
+	 * @param capacity the maximum number of solutions
+	 */
+	public SolutionCache(final int capacity) {
+		this.solutions = new LinkedHashMap<BatchKey, SolverResult>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<BatchKey, SolverResult> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached solution of the batch or solves it and caches the solution.
+	 * The cached solution of a batch with the same key is optimal for this batch as well,
+	 * but it can be a different combination with the same number of MATTE colours
+	 * than the one found by solving this batch.
+	 * Results that weren't proven, because the search budget ran out, aren't cached.
+	 * The statistics of a cached result are empty, as no search was needed
+	 * @param key the canonical form of the batch
+	 * @param solver solves the batch
+	 * @return the result of the batch
+	 */
+	public SolverResult getOrSolve(final BatchKey key, final Supplier<SolverResult> solver) {
+		synchronized (this) {
+			SolverResult cached = solutions.get(key);
+			if (cached != null) {
+				hits++;
+				return new SolverResult(cached.getSolution(), cached.getStatus());
+			}
+			misses++;
+		}
+
+		SolverResult result = solver.get();
+		if (result.getStatus().isProven()) {
+			synchronized (this) {
+				solutions.put(key, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The number of batches whose solution was found in the cache
+	 * @return the number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * The number of batches that had to be solved
+	 * @return the number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * The number of solutions currently kept
+	 * @return the number of solutions
+	 */
+	public synchronized int size() {
+		return solutions.size();
+	}
+}
@@ -0,0 +1,40 @@
+package paintshop.solver;
+
+/**
+ * Enum to represent how good the solution of a batch is
+ * when the search may be stopped by its budget
+ * @author danielaguado
+ *
+ */
+public enum SolutionStatus {
+
+	/** The solution has the least MATTE colours possible */
+	OPTIMAL,
+	/** There isn't a solution that satisfies every customer */
+	IMPOSSIBLE,
+	/** The budget ran out, the solution is the best one found so far */
+	NOT_PROVEN_OPTIMAL,
+	/** The budget ran out before any solution was found */
+	UNKNOWN;
+
+	/**
+	 * Whether the whole search space was explored, so solving the batch again gives the same status
+	 * @return true for OPTIMAL and IMPOSSIBLE
+	 */
+	public boolean isProven() {
+		return this == OPTIMAL || this == IMPOSSIBLE;
+	}
+
+	/**
+	 * The status of a search
+	 * @param solution the best solution found or null
+	 * @param complete whether the whole search space was explored
+	 * @return the status
+	 */
+	public static SolutionStatus of(final Assignment solution, final boolean complete) {
+		if (complete) {
+			return solution != null ? OPTIMAL : IMPOSSIBLE;
+		}
+		return solution != null ? NOT_PROVEN_OPTIMAL : UNKNOWN;
+	}
+}
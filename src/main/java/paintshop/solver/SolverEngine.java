@@ -0,0 +1,88 @@
+package paintshop.solver;
+
+import java.util.List;
+
+import paintshop.exceptions.SolverException;
+import paintshop.model.Customer;
+
+/**
+ * The solvers of the application, selected with the --solver option
+ * @author danielaguado
+ *
+ */
+public enum SolverEngine implements PaintBatchSolver {
+
+	/** Picks the engine of every independent group of customers with the {@link SolverSelector} */
+	AUTO("auto") {
+
+		@Override
+		public SolverResult solve(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+				final SearchOrder order) {
+			return SolverSelector.solve(numColours, customers, workers, budget, order);
+		}
+	},
+
+	/** The linear time solver, only for batches where every customer likes at most one MATTE colour */
+	LINEAR("linear") {
+
+		@Override
+		public SolverResult solve(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+				final SearchOrder order) {
+			if (!SingleMatteSolver.supports(customers)) {
+				throw new SolverException(LINEAR_SOLVER_NOT_SUPPORTED);
+			}
+			Assignment solution = new SingleMatteSolver(numColours, customers).solve();
+			return new SolverResult(solution, SolutionStatus.of(solution, true));
+		}
+	},
+
+	/** The branch and bound backtracking search, split into subtrees when there are several workers */
+	BACKTRACKING("backtracking") {
+
+		@Override
+		public SolverResult solve(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+				final SearchOrder order) {
+			return new BacktrackingSolver(numColours, customers, workers, budget, 0, order).solve();
+		}
+	},
+
+	/** The conflict driven clause learning search, it always uses a single thread */
+	CDCL("cdcl") {
+
+		@Override
+		public SolverResult solve(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+				final SearchOrder order) {
+			return new CdclSolver(numColours, customers, budget).solve();
+		}
+	};
+
+	private static final String LINEAR_SOLVER_NOT_SUPPORTED = "The linear solver only supports batches where every customer likes at most one MATTE colour";
+
+	private String name;
+
+	SolverEngine(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * The name of the engine in the command line
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Finds an engine by its name in the command line
+	 * @param name The name
+	 * @return the engine, null if there isn't an engine with that name
+	 */
+	public static SolverEngine fromName(final String name) {
+		for (SolverEngine engine : values()) {
+			if (engine.name.equals(name)) {
+				return engine;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,54 @@
+package paintshop.solver;
+
+/**
+ * The solution of a batch and its status
+ * @author danielaguado
+ *
+ */
+public final class SolverResult {
+
+	private final Assignment solution;
+	private final SolutionStatus status;
+	private final SearchStatistics statistics;
+
+	/**
+	 * Constructor for a solution found without searching, i.e. by the linear time solver or in a cache,
+	 * its statistics only have the colours assigned by the solution
+	 * @param solution the solution or null if none was found
+	 * @param status the status of the solution
+	 */
+	public SolverResult(final Assignment solution, final SolutionStatus status) {
+		this(solution, status, new SearchStatistics());
+		if (solution != null) {
+			statistics.depth(solution.getTrailSize());
+		}
+	}
+
+	/**
+	 * Constructor that receives the solution, its status and the statistics of the search
+	 * @param solution the solution or null if none was found
+	 * @param status the status of the solution
+	 * @param statistics the statistics of the search
+	 */
+	public SolverResult(final Assignment solution, final SolutionStatus status, final SearchStatistics statistics) {
+		this.solution = solution;
+		this.status = status;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * The best solution found
+	 * @return the solution or null if none was found
+	 */
+	public Assignment getSolution() {
+		return solution;
+	}
+
+	public SolutionStatus getStatus() {
+		return status;
+	}
+
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+}
@@ -0,0 +1,76 @@
+package paintshop.solver;
+
+import java.util.List;
+
+import paintshop.model.Customer;
+import paintshop.model.CustomerPreferences;
+
+/**
+ * Picks the fastest engine for a batch from its features.
+ * When every customer likes at most one MATTE colour the batch is solved in linear time.
+ * Otherwise the batch is split into its independent groups of customers, and for each group
+ * the size of the search space is estimated from the number of preferences of its customers,
+ * as the backtracking search chooses one preference per customer, and its number of colours,
+ * as there are never more choices than combinations of colours.
+ * The backtracking search is used for small search spaces, where it's as fast and keeps the
+ * first optimal solution in the order of the customers, and the clause learning search for large ones
+ * @author danielaguado
+ *
+ */
+public final class SolverSelector {
+
+	private static final double BACKTRACKING_MAX_BITS = 32;
+
+	private SolverSelector() {
+	}
+
+	/**
+	 * Solves a batch, each of its independent groups of customers with the engine picked for it
+	 * @param numColours The number of colours in the batch
+	 * @param customers The customers in the batch
+	 * @param workers The number of threads
+	 * @param budget The budget of the search
+	 * @param order The order of the backtracking search
+	 * @return the solution, null if there isn't a solution or none was found, and its status
+	 */
+	public static SolverResult solve(final int numColours, final List<Customer> customers, final int workers, final SearchBudget budget,
+			final SearchOrder order) {
+		if (select(numColours, customers) == SolverEngine.LINEAR) {
+			return SolverEngine.LINEAR.solve(numColours, customers, workers, budget, order);
+		}
+		return new DecomposingSolver(numColours, customers, workers, budget, order).solve();
+	}
+
+	/**
+	 * Picks the engine for a batch, or for one of its independent groups of customers
+	 * @param numColours The number of colours
+	 * @param customers The customers
+	 * @return the engine, never AUTO
+	 */
+	public static SolverEngine select(final int numColours, final List<Customer> customers) {
+		CustomerPreferences preferences = CustomerPreferences.of(customers);
+		int[] offsets = preferences.getOffsets();
+		int[] literals = preferences.getLiterals();
+		int maxMattePreferences = 0;
+		double searchBits = 0;
+		for (int i = 0; i < preferences.size(); i++) {
+			int mattePreferences = 0;
+			for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+				if (Literals.isMatte(literals[k])) {
+					mattePreferences++;
+				}
+			}
+			maxMattePreferences = Math.max(maxMattePreferences, mattePreferences);
+			searchBits += log2(offsets[i + 1] - offsets[i]);
+		}
+
+		if (maxMattePreferences <= 1) {
+			return SolverEngine.LINEAR;
+		}
+		return Math.min(searchBits, numColours) <= BACKTRACKING_MAX_BITS ? SolverEngine.BACKTRACKING : SolverEngine.CDCL;
+	}
+
+	private static double log2(final int value) {
+		return Math.log(value) / Math.log(2);
+	}
+}
@@ -0,0 +1,131 @@
+package paintshop.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.model.Colour;
+import paintshop.model.Customer;
+import paintshop.model.PaintBatch;
+import paintshop.model.PaintShop;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestWorkloadGenerator {
+
+	@Test
+	public void testSatisfiableCases() throws Exception {
+
+		GeneratorOptions options = new GeneratorOptions();
+		options.setCases(20);
+		options.setColours(30);
+		options.setCustomers(40);
+		options.setMaxPreferences(4);
+		options.setMatteRatio(0.5);
+
+		for (PaintBatch batch : generateAndSolve(options).getCustomerBatches()) {
+			assertEquals(40, batch.getCustomers().size());
+			assertNotEquals("IMPOSSIBLE", batch.getBatchFormatted());
+			for (Customer customer : batch.getCustomers()) {
+				int numPreferences = customer.getColourPreferences().size();
+				assertTrue(numPreferences >= 1 && numPreferences <= 4);
+			}
+		}
+	}
+
+	@Test
+	public void testImpossibleCasesWithOnePreference() throws Exception {
+
+		GeneratorOptions options = new GeneratorOptions();
+		options.setCases(5);
+		options.setColours(5);
+		options.setCustomers(10);
+		options.setMinPreferences(1);
+		options.setMaxPreferences(1);
+		options.setImpossible(true);
+
+		for (PaintBatch batch : generateAndSolve(options).getCustomerBatches()) {
+			assertEquals(10, batch.getCustomers().size());
+			assertEquals("IMPOSSIBLE", batch.getBatchFormatted());
+		}
+	}
+
+	@Test
+	public void testImpossibleCases() throws Exception {
+
+		GeneratorOptions options = new GeneratorOptions();
+		options.setCases(20);
+		options.setColours(30);
+		options.setCustomers(10);
+		options.setImpossible(true);
+
+		for (PaintBatch batch : generateAndSolve(options).getCustomerBatches()) {
+			assertEquals(10, batch.getCustomers().size());
+			assertEquals("IMPOSSIBLE", batch.getBatchFormatted());
+		}
+	}
+
+	@Test
+	public void testWorstCasesOnlyLikeMatte() throws Exception {
+
+		GeneratorOptions options = new GeneratorOptions();
+		options.setColours(12);
+		options.setCustomers(12);
+		options.setMinPreferences(2);
+		options.setWorstCase(true);
+
+		for (PaintBatch batch : generateAndSolve(options).getCustomerBatches()) {
+			for (Customer customer : batch.getCustomers()) {
+				for (Colour colour : customer.getColourPreferences()) {
+					assertEquals(1, colour.getType().type());
+				}
+			}
+			assertNotEquals("IMPOSSIBLE", batch.getBatchFormatted());
+		}
+	}
+
+	@Test
+	public void testSameSeedGeneratesTheSameFile() throws Exception {
+
+		GeneratorOptions options = new GeneratorOptions();
+		options.setCases(3);
+		options.setSeed(7);
+
+		StringWriter first = new StringWriter();
+		new WorkloadGenerator(options).generate(first);
+		StringWriter second = new StringWriter();
+		new WorkloadGenerator(options).generate(second);
+
+		assertEquals(first.toString(), second.toString());
+	}
+
+	@Test(expected = InvalidInputException.class)
+	public void testInvalidPreferencesRange() {
+
+		GeneratorOptions options = new GeneratorOptions();
+		options.setMinPreferences(4);
+		options.setMaxPreferences(2);
+		new WorkloadGenerator(options);
+	}
+
+	private PaintShop generateAndSolve(final GeneratorOptions options) throws Exception {
+		Path file = Files.createTempFile("testWorkloadGenerator", ".txt");
+		try {
+			new WorkloadGenerator(options).generate(file.toString());
+			PaintShop paintShop = new PaintShop(file.toString(), file.toString() + ".out");
+			paintShop.generateBatches();
+			return paintShop;
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
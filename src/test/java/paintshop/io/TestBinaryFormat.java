@@ -0,0 +1,165 @@
+package paintshop.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.generator.GeneratorOptions;
+import paintshop.generator.WorkloadGenerator;
+import paintshop.model.PaintBatch;
+import paintshop.model.PaintShopOptions;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestBinaryFormat {
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	private Path textFile;
+	private Path binaryFile;
+
+	@After
+	public void deleteFiles() throws IOException {
+		if (textFile != null) {
+			Files.deleteIfExists(textFile);
+		}
+		if (binaryFile != null) {
+			Files.deleteIfExists(binaryFile);
+		}
+	}
+
+	@Test
+	public void testConvertToBinaryAndBack() throws IOException {
+
+		List<String> lines = Arrays.asList("2", "5", "3", "1 1 1", "2 1 0 2 0", "1 5 0", "200", "2", "1 200 0", "2 1 1 200 1");
+		textFile = Files.createTempFile("testBinaryFormat", ".txt");
+		binaryFile = Files.createTempFile("testBinaryFormat", ".bin");
+		Files.write(textFile, lines);
+
+		InputConverter.toBinary(textFile.toString(), binaryFile.toString(), false);
+		assertTrue(BinaryFormat.isBinary(binaryFile.toString()));
+		assertFalse(BinaryFormat.isBinary(textFile.toString()));
+		assertTrue(Files.size(binaryFile) < Files.size(textFile));
+
+		InputConverter.toText(binaryFile.toString(), textFile.toString());
+		assertEquals(lines, Files.readAllLines(textFile));
+	}
+
+	@Test
+	public void testBinaryInputHasTheSameCasesAsTheText() throws IOException {
+
+		GeneratorOptions generatorOptions = new GeneratorOptions();
+		generatorOptions.setCases(20);
+		generatorOptions.setColours(30);
+		generatorOptions.setCustomers(40);
+		textFile = Files.createTempFile("testBinaryFormat", ".txt");
+		binaryFile = Files.createTempFile("testBinaryFormat", ".bin");
+		new WorkloadGenerator(generatorOptions).generate(textFile.toString());
+		InputConverter.toBinary(textFile.toString(), binaryFile.toString(), true);
+
+		try (BatchReader text = BatchReaders.open(textFile.toString(), new PaintShopOptions());
+				BatchReader binary = BatchReaders.open(binaryFile.toString(), new PaintShopOptions())) {
+			assertTrue(binary instanceof BinaryBatchReader);
+			assertEquals(text.getNumCases(), binary.getNumCases());
+			while (text.hasNextBatch()) {
+				assertTrue(binary.hasNextBatch());
+				assertEquals(text.nextBatch().mixColours(), binary.nextBatch().mixColours());
+			}
+			assertFalse(binary.hasNextBatch());
+		}
+	}
+
+	@Test
+	public void testReadCaseThroughTheIndex() throws IOException {
+
+		GeneratorOptions generatorOptions = new GeneratorOptions();
+		generatorOptions.setCases(10);
+		generatorOptions.setColours(20);
+		generatorOptions.setCustomers(15);
+		textFile = Files.createTempFile("testBinaryFormat", ".txt");
+		binaryFile = Files.createTempFile("testBinaryFormat", ".bin");
+		new WorkloadGenerator(generatorOptions).generate(textFile.toString());
+		InputConverter.toBinary(textFile.toString(), binaryFile.toString(), true);
+
+		try (TextBatchReader text = new TextBatchReader(textFile.toString());
+				BinaryBatchReader binary = new BinaryBatchReader(binaryFile.toString())) {
+			PaintBatch[] cases = new PaintBatch[text.getNumCases()];
+			for (int i = 0; i < cases.length; i++) {
+				cases[i] = text.nextBatch();
+			}
+
+			for (int caseNumber = cases.length; caseNumber >= 1; caseNumber -= 3) {
+				assertEquals(cases[caseNumber - 1].mixColours(), binary.readCase(caseNumber).mixColours());
+			}
+			//Random access doesn't move the sequential reading
+			assertEquals(cases[0].mixColours(), binary.nextBatch().mixColours());
+		}
+	}
+
+	@Test
+	public void testReadCaseWithoutIndex() throws IOException {
+
+		textFile = Paths.get("src", "test", "resources", "testCorrectInput.txt");
+		binaryFile = Files.createTempFile("testBinaryFormat", ".bin");
+		InputConverter.toBinary(textFile.toString(), binaryFile.toString(), false);
+		textFile = null;
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("The binary input file has no index of cases");
+
+		try (BinaryBatchReader binary = new BinaryBatchReader(binaryFile.toString())) {
+			binary.readCase(1);
+		}
+	}
+
+	@Test
+	public void testTruncatedBinaryInput() throws IOException {
+
+		textFile = Paths.get("src", "test", "resources", "testCorrectInput.txt");
+		binaryFile = Files.createTempFile("testBinaryFormat", ".bin");
+		InputConverter.toBinary(textFile.toString(), binaryFile.toString(), false);
+		textFile = null;
+		byte[] bytes = Files.readAllBytes(binaryFile);
+		Files.write(binaryFile, Arrays.copyOf(bytes, bytes.length - 2));
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Unexpected end of the binary input file");
+
+		try (BinaryBatchReader binary = new BinaryBatchReader(binaryFile.toString())) {
+			while (binary.hasNextBatch()) {
+				binary.nextBatch();
+			}
+		}
+	}
+
+	@Test
+	public void testCaseLengthLongerThanTheFile() throws IOException {
+
+		binaryFile = Files.createTempFile("testBinaryFormat", ".bin");
+		//Header with one case whose length is Integer.MAX_VALUE followed by a few bytes
+		Files.write(binaryFile, new byte[] { 'P', 'S', 'B', 1, 0, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 1, 2 });
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Unexpected end of the binary input file");
+
+		try (BinaryBatchReader binary = new BinaryBatchReader(binaryFile.toString())) {
+			binary.nextBatch();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package paintshop.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import paintshop.exceptions.InvalidInputException;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestByteTokenizer {
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@Test
+	public void testReadLinesWithDifferentLineEndings() {
+
+		ByteTokenizer tokenizer = createTokenizer("2\r\n5\r3\n1 1 1\r\n2  1 0\t2 0");
+
+		assertEquals(2, tokenizer.readIntLine());
+		assertEquals(5, tokenizer.readIntLine());
+		assertEquals(3, tokenizer.readIntLine());
+		assertEquals(3, tokenizer.readIntsLine());
+		assertEquals(5, tokenizer.readIntsLine());
+		assertEquals(2, tokenizer.getLineValues()[0]);
+		assertEquals(0, tokenizer.getLineValues()[4]);
+		assertEquals(-1, tokenizer.readIntsLine());
+	}
+
+	@Test
+	public void testNonNumericLine() {
+
+		ByteTokenizer tokenizer = createTokenizer("12a\n");
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Expected reading an Integer, found: 12a");
+
+		tokenizer.readIntLine();
+	}
+
+	@Test
+	public void testSignWithoutDigits() {
+
+		ByteTokenizer tokenizer = createTokenizer("1 - 0\n");
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Expected reading an Integer, found: 1 - 0");
+
+		tokenizer.readIntsLine();
+	}
+
+	@Test
+	public void testSignAtTheEndOfTheLine() {
+
+		ByteTokenizer tokenizer = createTokenizer("2 1 0 2 -\n");
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Expected reading an Integer, found: 2 1 0 2 -");
+
+		tokenizer.readIntsLine();
+	}
+
+	@Test
+	public void testEndOfInput() {
+
+		ByteTokenizer tokenizer = createTokenizer("1\n");
+		tokenizer.readIntLine();
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Expected reading an Integer, reached the end of the file");
+
+		tokenizer.readIntLine();
+	}
+
+	@Test
+	public void testMappedChunksSplittingValues() throws Exception {
+
+		Path file = Files.createTempFile("testMapped", ".txt");
+		Files.write(file, "123\r\n2 10 1\n".getBytes(StandardCharsets.UTF_8));
+
+		try (FileChannel channel = FileChannel.open(file)) {
+			ByteTokenizer tokenizer = new MappedByteTokenizer(channel, 2);
+
+			assertEquals(123, tokenizer.readIntLine());
+			assertEquals(3, tokenizer.readIntsLine());
+			assertEquals(10, tokenizer.getLineValues()[1]);
+			assertEquals(-1, tokenizer.readIntsLine());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private ByteTokenizer createTokenizer(final String input) {
+		return new ByteTokenizer(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))));
+	}
+
+}
@@ -0,0 +1,71 @@
+package paintshop.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import paintshop.exceptions.SolverException;
+import paintshop.model.PaintBatch;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestResultWriter {
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@Test
+	public void testWriteCasesLargerThanTheBuffer() throws Exception {
+
+		PaintBatch wideBatch = new PaintBatch(600000);
+		wideBatch.addCustomer("1 600000 1");
+		wideBatch.addCustomer("2 1 0 2 1");
+		wideBatch.solve();
+
+		PaintBatch impossibleBatch = new PaintBatch(1);
+		impossibleBatch.addCustomer("1 1 1");
+		impossibleBatch.addCustomer("1 1 0");
+		impossibleBatch.solve();
+
+		Path file = Files.createTempFile("testResultWriter", ".txt");
+		try {
+			try (ResultWriter writer = new ResultWriter(file.toString(), false)) {
+				writer.writeCase(1, wideBatch);
+				writer.writeCase(12, impossibleBatch);
+			}
+
+			List<String> lines = Files.readAllLines(file);
+			assertEquals(2, lines.size());
+			assertEquals("Case #1: " + wideBatch.getBatchFormatted(), lines.get(0));
+			assertEquals("Case #12: IMPOSSIBLE", lines.get(1));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testUnsolvedBatchIsNotWritten() throws Exception {
+
+		PaintBatch unsolvedBatch = new PaintBatch(1);
+		unsolvedBatch.addCustomer("1 1 1");
+
+		Path file = Files.createTempFile("testResultWriter", ".txt");
+		exception.expect(SolverException.class);
+		exception.expectMessage("Case #3 can't be written as it hasn't been solved");
+
+		try (ResultWriter writer = new ResultWriter(file.toString(), false)) {
+			writer.writeCase(3, unsolvedBatch);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
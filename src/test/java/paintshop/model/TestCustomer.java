@@ -1,6 +1,8 @@
 package paintshop.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -84,4 +86,44 @@ public class TestCustomer {
 		assertEquals(new Colour(2, 1), customer.getColourPreferences().get(0));
 	}
 
+	@Test
+	public void testCustomersShareTheColoursOfTheBatch() {
+
+		ColourTable colourTable = new ColourTable(5);
+
+		Customer first = new Customer("2 2 1 5 0", colourTable);
+		Customer second = new Customer(new int[] { 2, 5, 0, 2, 0 }, 5, colourTable);
+
+		assertSame(first.getColourPreferences().get(1), second.getColourPreferences().get(0));
+		assertNotSame(first.getColourPreferences().get(0), second.getColourPreferences().get(1));
+		assertEquals(new Colour(2, 0), second.getColourPreferences().get(1));
+	}
+
+	@Test
+	public void testInvalidTypeWithColourTable() {
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Invalid color type, valid values are 0 and 1, received: 2");
+
+		new Customer("1 1 2", new ColourTable(3));
+	}
+
+	@Test
+	public void testColourTableGrowsUpToTheNumberOfColours() {
+
+		ColourTable colourTable = new ColourTable(1000);
+
+		assertSame(colourTable.get(900, 1), colourTable.get(900, 1));
+		assertEquals(new Colour(1000, 0), colourTable.get(1000, 0));
+	}
+
+	@Test
+	public void testColourAboveTheNumberOfColoursWithColourTable() {
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Colour numbers must be between 1 and 3 but found 1500000000");
+
+		new Customer("1 1500000000 0", new ColourTable(3));
+	}
+
 }
@@ -0,0 +1,118 @@
+package paintshop.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import paintshop.exceptions.InvalidInputException;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestCustomerPreferences {
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@Test
+	public void testFlatArrays() {
+
+		CustomerPreferences preferences = new CustomerPreferences();
+		preferences.add(new int[] { 1, 1, 1 }, 3, 5);
+		preferences.add(new int[] { 2, 1, 0, 2, 0 }, 5, 5);
+		preferences.add(new Customer("1 5 0"), 5);
+		preferences.trimToSize();
+
+		assertEquals(3, preferences.size());
+		assertArrayEquals(new int[] { 0, 1, 3, 4 }, preferences.getOffsets());
+		assertArrayEquals(new int[] { 3, 2, 4, 10 }, preferences.getLiterals());
+		assertEquals(5, preferences.maxColour(1));
+	}
+
+	@Test
+	public void testViewHasTheSameCustomers() {
+
+		List<Customer> customers = Arrays.asList(new Customer("1 1 1"), new Customer("3 1 0 2 1 7 0"), new Customer("1 5 0"));
+		CustomerPreferences preferences = CustomerPreferences.of(customers);
+
+		assertEquals(customers.size(), preferences.asList().size());
+		for (int i = 0; i < customers.size(); i++) {
+			assertEquals(customers.get(i).getColourPreferences(), preferences.asList().get(i).getColourPreferences());
+		}
+		assertSame(preferences, CustomerPreferences.of(preferences.asList()));
+	}
+
+	@Test
+	public void testViewSharesTheColoursOfTheBatch() {
+
+		PaintBatch batch = new PaintBatch(3);
+		batch.addCustomer("2 1 1 3 0");
+		batch.addCustomer("1 3 0");
+
+		Colour colour = batch.getCustomers().get(0).getColourPreferences().get(1);
+		assertSame(colour, batch.getCustomers().get(1).getColourPreferences().get(0));
+		assertSame(colour, batch.getColourTable().get(3, 0));
+	}
+
+	@Test
+	public void testGrowsPastTheInitialCapacity() {
+
+		CustomerPreferences preferences = new CustomerPreferences();
+		for (int i = 1; i <= 1000; i++) {
+			preferences.add(new int[] { 2, i, 1, i + 1, 0 }, 5, 1001);
+		}
+
+		assertEquals(1000, preferences.size());
+		assertEquals(new Colour(500, 1), preferences.getCustomer(499).getColourPreferences().get(0));
+		assertEquals(new Colour(1000, 0), preferences.asList().get(998).getColourPreferences().get(1));
+	}
+
+	@Test
+	public void testViewIsReadOnly() {
+
+		CustomerPreferences preferences = new CustomerPreferences();
+		preferences.add(new Customer("1 1 1"), 1);
+
+		exception.expect(UnsupportedOperationException.class);
+
+		preferences.asList().add(new Customer("1 2 1"));
+	}
+
+	@Test
+	public void testInvalidValuesAreNotAdded() {
+
+		CustomerPreferences preferences = new CustomerPreferences();
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Expected 2 colours in customer preferences but found 1");
+
+		try {
+			preferences.add(new int[] { 2, 1, 1, 2 }, 4, 2);
+		} finally {
+			assertEquals(0, preferences.size());
+		}
+	}
+
+	@Test
+	public void testColourAboveTheNumberOfColoursIsNotAdded() {
+
+		CustomerPreferences preferences = new CustomerPreferences();
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Colour numbers must be between 1 and 5 but found 1500000000");
+
+		try {
+			preferences.add(new int[] { 2, 1, 1, 1500000000, 0 }, 5, 5);
+		} finally {
+			assertEquals(0, preferences.size());
+		}
+	}
+}
@@ -1,9 +1,19 @@
 package paintshop.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Random;
 
 import org.junit.Test;
 
+import paintshop.solver.Assignment;
+import paintshop.solver.SearchLimits;
+import paintshop.solver.SolutionStatus;
+import paintshop.solver.SolverEngine;
+
 /**
  * @author danielaguado
  *
@@ -125,4 +135,293 @@ public class TestPaintBatch {
 		assertEquals("1 0 0 0 0", result);
 	}
 
+	@Test
+	public void testWideSingleMatteBatch() {
+
+		int numColours = 5000;
+		PaintBatch paintBatch = new PaintBatch(numColours);
+		paintBatch.addCustomer("1 1 1");
+		for (int i = 1; i < numColours; i++) {
+			paintBatch.addCustomer("2 " + i + " 0 " + (i + 1) + " 1");
+		}
+
+		String result = paintBatch.mixColours();
+
+		assertEquals(String.join(" ", Collections.nCopies(numColours, "1")), result);
+	}
+
+	@Test
+	public void testWideSingleMatteBatchImpossible() {
+
+		int numColours = 5000;
+		PaintBatch paintBatch = new PaintBatch(numColours);
+		paintBatch.addCustomer("1 1 1");
+		for (int i = 1; i < numColours; i++) {
+			paintBatch.addCustomer("2 " + i + " 0 " + (i + 1) + " 1");
+		}
+		paintBatch.addCustomer("1 " + numColours + " 0");
+
+		String result = paintBatch.mixColours();
+
+		assertEquals("IMPOSSIBLE", result);
+	}
+
+	@Test
+	public void testForcedChainWithSeveralMatteColours() {
+
+		int numColours = 2000;
+		PaintBatch paintBatch = new PaintBatch(numColours);
+		paintBatch.addCustomer("2 1 1 2 1");
+		paintBatch.addCustomer("1 1 1");
+		for (int i = 1; i < numColours; i++) {
+			paintBatch.addCustomer("2 " + i + " 0 " + (i + 1) + " 1");
+		}
+
+		String result = paintBatch.mixColours();
+
+		assertEquals(String.join(" ", Collections.nCopies(numColours, "1")), result);
+	}
+
+	@Test(timeout = 10000)
+	public void testManyMatteOptionsPerCustomer() {
+
+		int numCustomers = 30;
+		PaintBatch paintBatch = new PaintBatch(numCustomers * 3);
+		for (int i = 0; i < numCustomers; i++) {
+			paintBatch.addCustomer("3 " + (3 * i + 1) + " 1 " + (3 * i + 2) + " 1 " + (3 * i + 3) + " 0");
+		}
+
+		String result = paintBatch.mixColours();
+
+		assertEquals(String.join(" ", Collections.nCopies(numCustomers * 3, "0")), result);
+	}
+
+	@Test
+	public void testNodeLimitReturnsBestSolutionSoFar() {
+
+		//Every customer likes two MATTE colours of a ring with chords, the fewest MATTE colours is a minimum vertex cover
+		int numColours = 60;
+		PaintBatch paintBatch = new PaintBatch(numColours);
+		for (int i = 1; i <= numColours; i++) {
+			paintBatch.addCustomer("2 " + i + " 1 " + (i % numColours + 1) + " 1");
+			paintBatch.addCustomer("2 " + i + " 1 " + ((i + 6) % numColours + 1) + " 1");
+		}
+		paintBatch.setSearchLimits(SearchLimits.startingNow(0, 1000, 0));
+
+		String result = paintBatch.mixColours();
+
+		assertEquals(SolutionStatus.NOT_PROVEN_OPTIMAL, paintBatch.getStatus());
+		assertEquals(1000, paintBatch.getStatistics().getSearchStatistics().getNodes());
+		assertTrue(paintBatch.getStatistics().getSearchStatistics().getBacktracks() > 0);
+		assertTrue(paintBatch.getStatistics().getSearchStatistics().getPeakDepth() >= numColours / 2);
+		assertTrue(result.endsWith(" (NOT PROVEN OPTIMAL)"));
+		for (Customer customer : paintBatch.getCustomers()) {
+			assertTrue(customer.getColourPreferences().stream()
+					.anyMatch(colour -> paintBatch.getSolution().getType(colour.getNumber()) == colour.getType()));
+		}
+	}
+
+	@Test
+	public void testNodeLimitWithoutSolution() {
+
+		PaintBatch paintBatch = new PaintBatch(4);
+		paintBatch.addCustomer("2 1 1 2 1");
+		paintBatch.addCustomer("2 3 1 4 1");
+		paintBatch.setSearchLimits(SearchLimits.startingNow(0, 1, 0));
+
+		assertEquals("UNKNOWN", paintBatch.mixColours());
+		assertEquals(SolutionStatus.UNKNOWN, paintBatch.getStatus());
+	}
+
+	@Test
+	public void testParallelSearchMatchesSequentialSearch() {
+
+		int numColours = 12;
+		Random random = new Random(7);
+		for (int run = 0; run < 50; run++) {
+			PaintBatch sequential = new PaintBatch(numColours);
+			PaintBatch parallel = new PaintBatch(numColours);
+			parallel.setSearchWorkers(4);
+			for (int i = 0; i < 20; i++) {
+				String customer = "3 " + (1 + random.nextInt(numColours)) + " " + random.nextInt(2) + " "
+						+ (1 + random.nextInt(numColours)) + " " + random.nextInt(2) + " "
+						+ (1 + random.nextInt(numColours)) + " " + random.nextInt(2);
+				sequential.addCustomer(customer);
+				parallel.addCustomer(customer);
+			}
+
+			assertEquals(sequential.mixColours(), parallel.mixColours());
+		}
+	}
+
+	@Test
+	public void testIncrementalSingleMatteMatchesSolvingAgain() {
+
+		int numColours = 15;
+		Random random = new Random(11);
+		for (int run = 0; run < 50; run++) {
+			PaintBatch incremental = new PaintBatch(numColours);
+			PaintBatch fromScratch = new PaintBatch(numColours);
+			for (int i = 0; i < 30; i++) {
+				String customer = "3 " + (1 + random.nextInt(numColours)) + " 0 "
+						+ (1 + random.nextInt(numColours)) + " 0 "
+						+ (1 + random.nextInt(numColours)) + " " + (random.nextInt(4) == 0 ? 1 : 0);
+				if (random.nextInt(5) == 0) {
+					customer = "1 " + (1 + random.nextInt(numColours)) + " " + random.nextInt(2);
+				}
+				fromScratch.addCustomer(customer);
+
+				assertEquals(fromScratch.mixColours(), incremental.addCustomerAndMixColours(customer));
+				assertEquals(fromScratch.getStatus(), incremental.getStatus());
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalSearchMatchesSolvingAgain() {
+
+		int numColours = 10;
+		Random random = new Random(13);
+		for (int run = 0; run < 30; run++) {
+			PaintBatch incremental = new PaintBatch(numColours);
+			PaintBatch fromScratch = new PaintBatch(numColours);
+			for (int i = 0; i < 20; i++) {
+				String customer = "3 " + (1 + random.nextInt(numColours)) + " " + random.nextInt(2) + " "
+						+ (1 + random.nextInt(numColours)) + " " + random.nextInt(2) + " "
+						+ (1 + random.nextInt(numColours)) + " " + random.nextInt(2);
+				fromScratch.addCustomer(customer);
+				incremental.addCustomerAndSolve(new Customer(customer));
+				fromScratch.solve();
+
+				assertEquals(fromScratch.getStatus(), incremental.getStatus());
+				if (fromScratch.getSolution() != null) {
+					assertEquals(fromScratch.getSolution().getMatteCount(), incremental.getSolution().getMatteCount());
+					for (Customer each : incremental.getCustomers()) {
+						assertTrue(isSatisfied(each, incremental));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalSingleMatteDoesNotSolveAgain() {
+
+		PaintBatch paintBatch = new PaintBatch(4);
+		paintBatch.addCustomer("2 1 0 2 1");
+		paintBatch.addCustomer("2 2 0 3 1");
+		assertEquals("0 0 0 0", paintBatch.mixColours());
+
+		Assignment solution = paintBatch.getSolution();
+
+		//The new customer forces colours that were GLOSSY, they are propagated into the same assignment
+		assertEquals("1 1 1 0", paintBatch.addCustomerAndMixColours("1 1 1"));
+		assertSame(solution, paintBatch.getSolution());
+	}
+
+	@Test
+	public void testIncrementalSearchExploresFewerNodes() {
+
+		int numColours = 10;
+		Random random = new Random(17);
+		long incrementalNodes = 0;
+		long fromScratchNodes = 0;
+		for (int run = 0; run < 30; run++) {
+			PaintBatch incremental = new PaintBatch(numColours);
+			PaintBatch fromScratch = new PaintBatch(numColours);
+			incremental.setSolver(SolverEngine.BACKTRACKING);
+			fromScratch.setSolver(SolverEngine.BACKTRACKING);
+			for (int i = 0; i < 20; i++) {
+				String customer = "3 " + (1 + random.nextInt(numColours)) + " " + random.nextInt(2) + " "
+						+ (1 + random.nextInt(numColours)) + " " + random.nextInt(2) + " "
+						+ (1 + random.nextInt(numColours)) + " " + random.nextInt(2);
+				fromScratch.addCustomer(customer);
+				incremental.addCustomerAndMixColours(customer);
+				fromScratch.solve();
+
+				incrementalNodes += incremental.getStatistics().getSearchStatistics().getNodes();
+				fromScratchNodes += fromScratch.getStatistics().getSearchStatistics().getNodes();
+			}
+		}
+
+		assertTrue(incrementalNodes < fromScratchNodes);
+	}
+
+	@Test
+	public void testIncrementalSearchOnlySolvesTheComponentOfTheCustomer() {
+
+		int numColours = 40;
+		int clusterSize = 8;
+		Random random = new Random(19);
+		for (SolverEngine engine : new SolverEngine[] { SolverEngine.BACKTRACKING, SolverEngine.AUTO, SolverEngine.CDCL }) {
+			long incrementalNodes = 0;
+			long fromScratchNodes = 0;
+			for (int run = 0; run < 10; run++) {
+				PaintBatch incremental = new PaintBatch(numColours);
+				PaintBatch fromScratch = new PaintBatch(numColours);
+				incremental.setSolver(engine);
+				for (int i = 0; i < 60; i++) {
+					//Every customer likes colours of one of the clusters, so the batch has several components
+					int first = 1 + random.nextInt(numColours / clusterSize) * clusterSize;
+					String customer = "3 " + (first + random.nextInt(clusterSize)) + " " + random.nextInt(2) + " "
+							+ (first + random.nextInt(clusterSize)) + " " + random.nextInt(2) + " "
+							+ (first + random.nextInt(clusterSize)) + " " + random.nextInt(2);
+					fromScratch.addCustomer(customer);
+					incremental.addCustomerAndSolve(new Customer(customer));
+					fromScratch.solve();
+
+					assertEquals(fromScratch.getStatus(), incremental.getStatus());
+					if (fromScratch.getSolution() != null) {
+						assertEquals(fromScratch.getSolution().getMatteCount(), incremental.getSolution().getMatteCount());
+						for (Customer each : incremental.getCustomers()) {
+							assertTrue(isSatisfied(each, incremental));
+						}
+					}
+					incrementalNodes += incremental.getStatistics().getSearchStatistics().getNodes();
+					fromScratchNodes += fromScratch.getStatistics().getSearchStatistics().getNodes();
+				}
+			}
+
+			//Solving from scratch already splits the batch into components, but it solves all of them
+			if (engine == SolverEngine.BACKTRACKING) {
+				assertTrue(incrementalNodes * 2 < fromScratchNodes);
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalKeepsSolutionThatSatisfiesTheCustomer() {
+
+		PaintBatch paintBatch = new PaintBatch(3);
+		paintBatch.addCustomer("2 1 1 2 0");
+		paintBatch.addCustomer("1 3 0");
+		assertEquals("0 0 0", paintBatch.mixColours());
+
+		Assignment solution = paintBatch.getSolution();
+
+		assertEquals("0 0 0", paintBatch.addCustomerAndMixColours("2 2 0 3 1"));
+		assertSame(solution, paintBatch.getSolution());
+		assertEquals("1 0 0", paintBatch.addCustomerAndMixColours("1 1 1"));
+	}
+
+	@Test
+	public void testIncrementalAfterPlainAddSolvesAgain() {
+
+		PaintBatch paintBatch = new PaintBatch(2);
+		paintBatch.addCustomer("1 1 0");
+		assertEquals("0 0", paintBatch.mixColours());
+		paintBatch.addCustomer("1 1 1");
+
+		assertEquals("IMPOSSIBLE", paintBatch.addCustomerAndMixColours("1 2 0"));
+	}
+
+	private static boolean isSatisfied(final Customer customer, final PaintBatch paintBatch) {
+		for (Colour colour : customer.getColourPreferences()) {
+			if (paintBatch.getSolution().getType(colour.getNumber()) == colour.getType()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
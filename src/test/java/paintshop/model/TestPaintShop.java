@@ -2,6 +2,9 @@ package paintshop.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -134,6 +137,17 @@ public class TestPaintShop {
 		PaintShop shop = new PaintShop(filePath);
 	}
 
+	@Test
+	public void testInvalidInputColourNearMaxInt() {
+
+		String filePath = getFilePathFromResourcesFolder("testInvalidInputColourNearMaxInt.txt");
+
+		exception.expect(InvalidInputException.class);
+		exception.expectMessage("Colour numbers must be between 1 and 5 but found 2147483647");
+
+		PaintShop shop = new PaintShop(filePath);
+	}
+
 	@Test
 	public void testGenerateBatchesCorrectInput() {
 
@@ -147,6 +161,64 @@ public class TestPaintShop {
 		assertEquals("Case #2: IMPOSSIBLE", shop.getBatchSolutionFormatted().get(1));
 	}
 
+	@Test
+	public void testBatchesNotFormattedUntilEveryBatchIsSolved() {
+
+		String filePath = getFilePathFromResourcesFolder("testCorrectInput.txt");
+
+		PaintShop shop = new PaintShop(filePath);
+		shop.getCustomerBatches().get(0).solve();
+
+		assertNull(shop.getBatchSolutionFormatted());
+	}
+
+	@Test
+	public void testGenerateBatchesInParallel() {
+
+		String filePath = getFilePathFromResourcesFolder("testCorrectInput.txt");
+
+		PaintShopOptions options = new PaintShopOptions();
+		options.setWorkers(4);
+		PaintShop shop = new PaintShop(filePath, null, options);
+		shop.generateBatches();
+
+		assertEquals(2, shop.getBatchSolutionFormatted().size());
+		assertEquals("Case #1: 1 0 0 0 0", shop.getBatchSolutionFormatted().get(0));
+		assertEquals("Case #2: IMPOSSIBLE", shop.getBatchSolutionFormatted().get(1));
+	}
+
+	@Test
+	public void testGenerateRepeatedBatchesWithCache() {
+
+		String filePath = getFilePathFromResourcesFolder("testRepeatedBatches.txt");
+
+		PaintShopOptions options = new PaintShopOptions();
+		options.setCacheSize(10);
+		PaintShop shop = new PaintShop(filePath, null, options);
+		shop.generateBatches();
+
+		assertEquals("Case #1: 1 0 0 0 0", shop.getBatchSolutionFormatted().get(0));
+		assertEquals("Case #2: 1 0 0 0 0", shop.getBatchSolutionFormatted().get(1));
+		assertEquals("Case #3: IMPOSSIBLE", shop.getBatchSolutionFormatted().get(2));
+		assertEquals("Case #4: 1 0 0 0 0", shop.getBatchSolutionFormatted().get(3));
+		assertEquals(2, shop.getSolutionCache().getHits());
+		assertEquals(2, shop.getSolutionCache().getMisses());
+	}
+
+	@Test
+	public void testGenerateBatchesMemoryMapped() {
+
+		String filePath = getFilePathFromResourcesFolder("testCorrectInput.txt");
+
+		PaintShopOptions options = new PaintShopOptions();
+		options.setMemoryMapped(true);
+		PaintShop shop = new PaintShop(filePath, null, options);
+		shop.generateBatches();
+
+		assertEquals("Case #1: 1 0 0 0 0", shop.getBatchSolutionFormatted().get(0));
+		assertEquals("Case #2: IMPOSSIBLE", shop.getBatchSolutionFormatted().get(1));
+	}
+
 	@Test
 	public void testGenerateBatchesToFile() throws Exception {
 
@@ -165,6 +237,70 @@ public class TestPaintShop {
 		Files.delete(Paths.get("testOutput.txt"));
 	}
 
+	@Test
+	public void testStatisticsReport() throws Exception {
+
+		String filePath = getFilePathFromResourcesFolder("testCorrectInput.txt");
+
+		PaintShopOptions options = new PaintShopOptions();
+		options.setStatistics(true);
+		PaintShop shop = new PaintShop(filePath, "testStatsOutput.txt", options);
+		shop.generateBatches();
+		shop.printOutput();
+
+		List<String> report = Files.readAllLines(Paths.get("testStatsOutput.txt.stats.csv"));
+		assertEquals(3, report.size());
+		assertEquals("case,colours,customers,status,parse_ms,solve_ms,output_ms,nodes,backtracks,pruned,peak_depth,search_order", report.get(0));
+		assertTrue(report.get(1).matches("1,5,3,OPTIMAL,[0-9.]+,[0-9.]+,[0-9.]+,0,0,0,1,file"));
+		assertTrue(report.get(2).matches("2,1,2,IMPOSSIBLE,[0-9.]+,[0-9.]+,[0-9.]+,0,0,0,0,file"));
+
+		//Delete the files after the test
+		Files.delete(Paths.get("testStatsOutput.txt"));
+		Files.delete(Paths.get("testStatsOutput.txt.stats.csv"));
+	}
+
+	@Test
+	public void testStreamingToFile() throws Exception {
+
+		String filePath = getFilePathFromResourcesFolder("testCorrectInput.txt");
+
+		PaintShopOptions options = new PaintShopOptions();
+		options.setStreaming(true);
+		options.setWorkers(2);
+		options.setQueueSize(1);
+		new StreamingPaintShop(filePath, "testStreamingOutput.txt", options).run();
+
+		List<String> testOutputList = Files.readAllLines(Paths.get("testStreamingOutput.txt"));
+		assertEquals(2, testOutputList.size());
+		assertEquals("Case #1: 1 0 0 0 0", testOutputList.get(0));
+		assertEquals("Case #2: IMPOSSIBLE", testOutputList.get(1));
+
+		//Delete the file after the test
+		Files.delete(Paths.get("testStreamingOutput.txt"));
+	}
+
+	@Test
+	public void testStreamingWritesCasesBeforeInvalidInput() throws Exception {
+
+		String filePath = getFilePathFromResourcesFolder("testInvalidInputNumberOfCasesDoesntMatch.txt");
+
+		PaintShopOptions options = new PaintShopOptions();
+		options.setStreaming(true);
+		try {
+			new StreamingPaintShop(filePath, "testStreamingOutput.txt", options).run();
+			fail("Expected an InvalidInputException");
+		} catch (InvalidInputException e) {
+			assertEquals("Expected reading an Integer, reached the end of the file", e.getMessage());
+		}
+
+		List<String> testOutputList = Files.readAllLines(Paths.get("testStreamingOutput.txt"));
+		assertEquals(1, testOutputList.size());
+		assertEquals("Case #1: 1 0 0 0 0", testOutputList.get(0));
+
+		//Delete the file after the test
+		Files.delete(Paths.get("testStreamingOutput.txt"));
+	}
+
 	@Test
 	public void testInvalidOutputFile() throws Exception {
 
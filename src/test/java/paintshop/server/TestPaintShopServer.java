@@ -0,0 +1,129 @@
+package paintshop.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import paintshop.exceptions.InvalidInputException;
+import paintshop.io.InputConverter;
+import paintshop.model.PaintShopOptions;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestPaintShopServer {
+
+	private PaintShopServer server;
+	private Path outputFile;
+
+	@Before
+	public void startServer() throws Exception {
+		PaintShopOptions options = new PaintShopOptions();
+		options.setWorkers(2);
+		server = new PaintShopServer(0, options);
+		server.start();
+		outputFile = Files.createTempFile("testPaintShopServer", ".txt");
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+		Files.deleteIfExists(outputFile);
+	}
+
+	@Test
+	public void testSolveSeveralFilesWithTheSameServer() throws Exception {
+
+		PaintShopClient client = new PaintShopClient(server.getPort());
+		for (int i = 0; i < 3; i++) {
+			client.solve(getFilePathFromResourcesFolder("testCorrectInput.txt"), outputFile.toString(), false);
+
+			List<String> testOutputList = Files.readAllLines(outputFile);
+			assertEquals(2, testOutputList.size());
+			assertEquals("Case #1: 1 0 0 0 0", testOutputList.get(0));
+			assertEquals("Case #2: IMPOSSIBLE", testOutputList.get(1));
+		}
+	}
+
+	@Test
+	public void testInvalidInputIsReportedAfterThePreviousCases() throws Exception {
+
+		PaintShopClient client = new PaintShopClient(server.getPort());
+		try {
+			client.solve(getFilePathFromResourcesFolder("testInvalidInputNumberOfCasesDoesntMatch.txt"), outputFile.toString(), false);
+			fail("Expected an InvalidInputException");
+		} catch (InvalidInputException e) {
+			assertEquals("Expected reading an Integer, reached the end of the file", e.getMessage());
+		}
+
+		List<String> testOutputList = Files.readAllLines(outputFile);
+		assertEquals(1, testOutputList.size());
+		assertEquals("Case #1: 1 0 0 0 0", testOutputList.get(0));
+	}
+
+	@Test
+	public void testSolveBinaryFile() throws Exception {
+
+		Path binaryFile = Files.createTempFile("testPaintShopServer", ".bin");
+		try {
+			InputConverter.toBinary(getFilePathFromResourcesFolder("testCorrectInput.txt"), binaryFile.toString(), true);
+			new PaintShopClient(server.getPort()).solve(binaryFile.toString(), outputFile.toString(), false);
+		} finally {
+			Files.deleteIfExists(binaryFile);
+		}
+
+		List<String> testOutputList = Files.readAllLines(outputFile);
+		assertEquals(2, testOutputList.size());
+		assertEquals("Case #1: 1 0 0 0 0", testOutputList.get(0));
+		assertEquals("Case #2: IMPOSSIBLE", testOutputList.get(1));
+	}
+
+	@Test
+	public void testSolveBinaryFileWithACaseLargerThanTheReadBuffer() throws Exception {
+
+		//Each customer takes 3 bytes, so the case is larger than the 64 KB read buffer
+		List<String> lines = new ArrayList<>();
+		lines.add("1");
+		lines.add("2");
+		lines.add("30000");
+		for (int i = 0; i < 30000; i++) {
+			lines.add(i % 2 == 0 ? "1 1 0" : "1 2 1");
+		}
+		Path textFile = Files.createTempFile("testPaintShopServer", ".txt");
+		Path binaryFile = Files.createTempFile("testPaintShopServer", ".bin");
+		try {
+			Files.write(textFile, lines);
+			InputConverter.toBinary(textFile.toString(), binaryFile.toString(), false);
+			new PaintShopClient(server.getPort()).solve(binaryFile.toString(), outputFile.toString(), false);
+		} finally {
+			Files.deleteIfExists(textFile);
+			Files.deleteIfExists(binaryFile);
+		}
+
+		List<String> testOutputList = Files.readAllLines(outputFile);
+		assertEquals(1, testOutputList.size());
+		assertEquals("Case #1: 0 1", testOutputList.get(0));
+	}
+
+	@Test(expected = InvalidInputException.class)
+	public void testNonExistingFile() {
+
+		new PaintShopClient(server.getPort()).solve("nonexistingfile.txt", outputFile.toString(), false);
+	}
+
+	private String getFilePathFromResourcesFolder(final String fileName) {
+		ClassLoader classLoader = getClass().getClassLoader();
+		File file = new File(classLoader.getResource(fileName).getFile());
+		return file.getAbsolutePath();
+	}
+}
@@ -0,0 +1,59 @@
+package paintshop.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import paintshop.model.Customer;
+
+/**
+ * Random batches shared by the solver tests
+ * @author danielaguado
+ *
+ */
+final class RandomBatches {
+
+	private RandomBatches() {
+	}
+
+	/**
+	 * Customers with 1 to maxPreferences preferences for any colour of the batch
+	 * @param random the source of randomness, seeded by the test
+	 * @param numColours the number of colours of the batch
+	 * @param numCustomers the number of customers
+	 * @param maxPreferences the highest number of preferences of a customer
+	 * @param matteProbability the probability of each preference being MATTE
+	 * @return the customers
+	 */
+	static List<Customer> customers(final Random random, final int numColours, final int numCustomers, final int maxPreferences,
+			final double matteProbability) {
+		return clusteredCustomers(random, numColours, numCustomers, 1, maxPreferences, matteProbability);
+	}
+
+	/**
+	 * Customers whose colours are taken from one of a few disjoint ranges, so the batch has several components
+	 * @param random the source of randomness, seeded by the test
+	 * @param numColours the number of colours of the batch
+	 * @param numCustomers the number of customers
+	 * @param clusters the number of ranges the colours are split into
+	 * @param maxPreferences the highest number of preferences of a customer
+	 * @param matteProbability the probability of each preference being MATTE
+	 * @return the customers
+	 */
+	static List<Customer> clusteredCustomers(final Random random, final int numColours, final int numCustomers, final int clusters,
+			final int maxPreferences, final double matteProbability) {
+		int clusterSize = Math.max(1, numColours / clusters);
+		List<Customer> customers = new ArrayList<>();
+		for (int i = 0; i < numCustomers; i++) {
+			int first = 1 + random.nextInt(clusters) * clusterSize;
+			int numPreferences = 1 + random.nextInt(maxPreferences);
+			StringBuilder line = new StringBuilder().append(numPreferences);
+			for (int j = 0; j < numPreferences; j++) {
+				int colour = Math.min(numColours, first + random.nextInt(clusterSize));
+				line.append(' ').append(colour).append(' ').append(random.nextDouble() < matteProbability ? 1 : 0);
+			}
+			customers.add(new Customer(line.toString()));
+		}
+		return customers;
+	}
+}
@@ -0,0 +1,55 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import paintshop.model.ColourType;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestAssignment {
+
+	@Test
+	public void testAssignAndUndo() {
+
+		Assignment assignment = new Assignment(3);
+		assignment.assign(Literals.of(1, 1));
+		int mark = assignment.getTrailSize();
+		assignment.assign(Literals.of(2, 0));
+		assignment.assign(Literals.of(3, 1));
+
+		assertEquals(2, assignment.getMatteCount());
+		assertTrue(assignment.isTrue(Literals.of(2, 0)));
+		assertTrue(assignment.isFalse(Literals.of(3, 0)));
+
+		assignment.undo(mark);
+
+		assertEquals(1, assignment.getMatteCount());
+		assertEquals(1, assignment.getTrailSize());
+		assertFalse(assignment.isAssigned(2));
+		assertFalse(assignment.isAssigned(3));
+		assertEquals(ColourType.MATTE, assignment.getType(1));
+		assertEquals(ColourType.GLOSSY, assignment.getType(3));
+	}
+
+	@Test
+	public void testCopyFrom() {
+
+		Assignment assignment = new Assignment(2);
+		assignment.assign(Literals.of(2, 1));
+
+		Assignment copy = new Assignment(2);
+		copy.assign(Literals.of(1, 1));
+		copy.copyFrom(assignment);
+
+		assertEquals(1, copy.getMatteCount());
+		assertTrue(copy.isMatte(2));
+		assertFalse(copy.isAssigned(1));
+	}
+
+}
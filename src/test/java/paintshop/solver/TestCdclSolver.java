@@ -0,0 +1,126 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import paintshop.model.Colour;
+import paintshop.model.Customer;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestCdclSolver {
+
+	@Test
+	public void testSameMatteCountAsTheBacktrackingSearch() {
+
+		Random random = new Random(23);
+		for (int run = 0; run < 300; run++) {
+			int numColours = 5 + random.nextInt(20);
+			List<Customer> customers = RandomBatches.customers(random, numColours, 5 + random.nextInt(40), 3, 0.5);
+
+			SolverResult backtracking = new BacktrackingSolver(numColours, customers, 1).solve();
+			SolverResult cdcl = new CdclSolver(numColours, customers, SearchBudget.unlimited()).solve();
+
+			assertEquals(backtracking.getStatus(), cdcl.getStatus());
+			if (backtracking.getSolution() != null) {
+				assertEquals(backtracking.getSolution().getMatteCount(), cdcl.getSolution().getMatteCount());
+				assertSatisfiesEveryCustomer(cdcl.getSolution(), customers);
+			} else {
+				assertNull(cdcl.getSolution());
+			}
+		}
+	}
+
+	@Test
+	public void testImpossibleBatch() {
+
+		List<Customer> customers = Arrays.asList(new Customer("2 1 1 2 1"), new Customer("2 1 0 2 0"), new Customer("2 1 1 2 0"),
+				new Customer("2 1 0 2 1"));
+
+		SolverResult result = new CdclSolver(2, customers, SearchBudget.unlimited()).solve();
+
+		assertEquals(SolutionStatus.IMPOSSIBLE, result.getStatus());
+		assertNull(result.getSolution());
+	}
+
+	@Test
+	public void testLargeBatchWithSeveralMatteColoursPerCustomer() {
+
+		Random random = new Random(29);
+		int numColours = 300;
+		List<Customer> customers = satisfiableCustomers(random, numColours, 1500);
+
+		SolverResult result = new CdclSolver(numColours, customers, SearchBudget.unlimited()).solve();
+
+		assertEquals(SolutionStatus.OPTIMAL, result.getStatus());
+		assertNotNull(result.getSolution());
+		assertSatisfiesEveryCustomer(result.getSolution(), customers);
+	}
+
+	@Test
+	public void testNodeLimitKeepsTheBestSolutionSoFar() {
+
+		Random random = new Random(31);
+		int numColours = 200;
+		List<Customer> customers = satisfiableCustomers(random, numColours, 800);
+
+		SolverResult result = new CdclSolver(numColours, customers, new SearchBudget(SearchBudget.NO_LIMIT, 10)).solve();
+
+		assertTrue(result.getStatus() == SolutionStatus.UNKNOWN || result.getStatus() == SolutionStatus.NOT_PROVEN_OPTIMAL);
+		if (result.getSolution() != null) {
+			assertSatisfiesEveryCustomer(result.getSolution(), customers);
+		}
+	}
+
+	@Test
+	public void testLubySequence() {
+
+		long[] expected = { 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1 };
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], CdclSolver.luby(i));
+		}
+	}
+
+	/**
+	 * Customers with two or three preferences where one of them agrees with a hidden solution
+	 */
+	private static List<Customer> satisfiableCustomers(final Random random, final int numColours, final int numCustomers) {
+		int[] hiddenSolution = new int[numColours + 1];
+		for (int colour = 1; colour <= numColours; colour++) {
+			hiddenSolution[colour] = random.nextInt(2);
+		}
+		List<Customer> customers = new ArrayList<>();
+		for (int i = 0; i < numCustomers; i++) {
+			int numPreferences = 2 + random.nextInt(2);
+			int agreeing = 1 + random.nextInt(numColours);
+			StringBuilder line = new StringBuilder().append(numPreferences);
+			line.append(' ').append(agreeing).append(' ').append(hiddenSolution[agreeing]);
+			for (int j = 1; j < numPreferences; j++) {
+				line.append(' ').append(1 + random.nextInt(numColours)).append(' ').append(random.nextInt(2));
+			}
+			customers.add(new Customer(line.toString()));
+		}
+		return customers;
+	}
+
+	private static void assertSatisfiesEveryCustomer(final Assignment solution, final List<Customer> customers) {
+		for (Customer customer : customers) {
+			boolean satisfied = false;
+			for (Colour colour : customer.getColourPreferences()) {
+				satisfied |= solution.getType(colour.getNumber()) == colour.getType();
+			}
+			assertTrue(satisfied);
+		}
+	}
+}
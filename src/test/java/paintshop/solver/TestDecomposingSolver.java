@@ -0,0 +1,73 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import paintshop.model.Customer;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestDecomposingSolver {
+
+	@Test
+	public void testSameSolutionAsTheWholeBatch() {
+
+		Random random = new Random(17);
+		for (int run = 0; run < 200; run++) {
+			int numColours = 8 + random.nextInt(20);
+			List<Customer> customers = RandomBatches.clusteredCustomers(random, numColours, 10 + random.nextInt(20), 1 + random.nextInt(4), 3, 2.0 / 3);
+
+			SolverResult whole = new BacktrackingSolver(numColours, customers, 1).solve();
+			SolverResult decomposed = new DecomposingSolver(numColours, customers, 1, SearchBudget.unlimited()).solve();
+			SolverResult parallel = new DecomposingSolver(numColours, customers, 4, SearchBudget.unlimited()).solve();
+
+			assertEquals(whole.getStatus(), decomposed.getStatus());
+			assertEquals(whole.getStatus(), parallel.getStatus());
+			assertEquals(format(whole.getSolution(), numColours), format(decomposed.getSolution(), numColours));
+			assertEquals(format(whole.getSolution(), numColours), format(parallel.getSolution(), numColours));
+		}
+	}
+
+	@Test
+	public void testImpossibleComponent() {
+
+		List<Customer> customers = Arrays.asList(new Customer("2 1 1 2 1"), new Customer("1 3 0"), new Customer("1 3 1"),
+				new Customer("2 4 1 5 1"));
+
+		SolverResult result = new DecomposingSolver(5, customers, 1, SearchBudget.unlimited()).solve();
+
+		assertEquals(SolutionStatus.IMPOSSIBLE, result.getStatus());
+		assertNull(result.getSolution());
+	}
+
+	@Test
+	public void testMergesTheColoursOfEveryComponent() {
+
+		List<Customer> customers = Arrays.asList(new Customer("2 1 1 6 1"), new Customer("1 6 0"), new Customer("2 3 1 4 1"),
+				new Customer("1 3 0"), new Customer("1 5 0"));
+
+		SolverResult result = new DecomposingSolver(6, customers, 1, SearchBudget.unlimited()).solve();
+
+		assertEquals(SolutionStatus.OPTIMAL, result.getStatus());
+		assertEquals("1 0 0 1 0 0", format(result.getSolution(), 6));
+	}
+
+	private static String format(final Assignment solution, final int numColours) {
+		if (solution == null) {
+			return null;
+		}
+		StringBuilder formatted = new StringBuilder();
+		for (int colour = 1; colour <= numColours; colour++) {
+			formatted.append(colour > 1 ? " " : "").append(solution.getType(colour).type());
+		}
+		return formatted.toString();
+	}
+}
@@ -0,0 +1,72 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestPreferenceBitsets {
+
+	@Test
+	public void testSatisfiedAcrossWords() {
+
+		int[][] literals = { { Literals.of(1, 1), Literals.of(130, 0) }, { Literals.of(64, 0), Literals.of(65, 1) } };
+		PreferenceBitsets bitsets = new PreferenceBitsets(literals);
+		Assignment assignment = new Assignment(130);
+
+		assertEquals(0, bitsets.nextUnsatisfied(0));
+
+		assign(Literals.of(130, 0), bitsets, assignment);
+		assertTrue(bitsets.isSatisfied(0, assignment));
+		assertEquals(1, bitsets.nextUnsatisfied(0));
+
+		assign(Literals.of(64, 1), bitsets, assignment);
+		assertFalse(bitsets.isSatisfied(1, assignment));
+		assertEquals(1, bitsets.nextUnsatisfied(0));
+
+		assign(Literals.of(65, 1), bitsets, assignment);
+		assertEquals(2, bitsets.nextUnsatisfied(0));
+
+		while (assignment.getTrailSize() > 0) {
+			bitsets.unassigned(assignment.pop(), assignment);
+		}
+		assertFalse(bitsets.isSatisfied(0, assignment));
+		assertEquals(0, bitsets.nextUnsatisfied(0));
+		assertEquals(1, bitsets.nextUnsatisfied(1));
+	}
+
+	@Test
+	public void testNextUnsatisfiedSkipsWordsOfSatisfiedCustomers() {
+
+		int[][] literals = new int[150][];
+		for (int i = 0; i < literals.length; i++) {
+			literals[i] = new int[] { Literals.of(i % 75, 0) };
+		}
+		PreferenceBitsets bitsets = new PreferenceBitsets(literals);
+		Assignment assignment = new Assignment(74);
+		for (int colour = 0; colour < 75; colour++) {
+			if (colour != 70) {
+				assign(Literals.of(colour, 0), bitsets, assignment);
+			}
+		}
+
+		assertEquals(70, bitsets.nextUnsatisfied(0));
+		assertEquals(145, bitsets.nextUnsatisfied(71));
+		assertEquals(150, bitsets.nextUnsatisfied(146));
+
+		//Undoing the last colour leaves both of its customers unsatisfied
+		bitsets.unassigned(assignment.pop(), assignment);
+		assertEquals(70, bitsets.nextUnsatisfied(0));
+		assertEquals(74, bitsets.nextUnsatisfied(71));
+	}
+
+	private static void assign(final int literal, final PreferenceBitsets bitsets, final Assignment assignment) {
+		assignment.assign(literal);
+		bitsets.assigned(literal);
+	}
+}
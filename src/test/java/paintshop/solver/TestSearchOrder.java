@@ -0,0 +1,83 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import paintshop.model.Customer;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestSearchOrder {
+
+	@Test
+	public void testEveryOrderFindsTheSameNumberOfMatteColours() {
+
+		Random random = new Random(31);
+		for (int run = 0; run < 200; run++) {
+			int numColours = 5 + random.nextInt(15);
+			List<Customer> customers = RandomBatches.customers(random, numColours, 5 + random.nextInt(25), 3, 0.7);
+
+			SolverResult expected = new BacktrackingSolver(numColours, customers, 1).solve();
+			for (SearchOrder order : SearchOrder.values()) {
+				for (int workers = 1; workers <= 3; workers += 2) {
+					SolverResult result = new BacktrackingSolver(numColours, customers, workers, SearchBudget.unlimited(), 0, order).solve();
+					assertEquals(expected.getStatus(), result.getStatus());
+					if (expected.getSolution() != null) {
+						assertEquals(expected.getSolution().getMatteCount(), result.getSolution().getMatteCount());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMostConstrainedExploresFewerNodes() {
+
+		Random random = new Random(9);
+		long fileNodes = 0;
+		long mostConstrainedNodes = 0;
+		for (int run = 0; run < 10; run++) {
+			int numColours = 20 + random.nextInt(10);
+			List<Customer> customers = RandomBatches.customers(random, numColours, 20 + random.nextInt(10), 4, 0.7);
+			fileNodes += new BacktrackingSolver(numColours, customers, 1, SearchBudget.unlimited(), 0, SearchOrder.FILE).solve()
+					.getStatistics().getNodes();
+			mostConstrainedNodes += new BacktrackingSolver(numColours, customers, 1, SearchBudget.unlimited(), 0, SearchOrder.MOST_CONSTRAINED)
+					.solve().getStatistics().getNodes();
+		}
+
+		assertTrue(mostConstrainedNodes < fileNodes);
+	}
+
+	@Test
+	public void testGlossyFirstStartsWithTheGlossyPreferences() {
+
+		List<Customer> customers = new ArrayList<>();
+		customers.add(new Customer("2 1 1 2 0"));
+
+		SolverResult file = new BacktrackingSolver(2, customers, 1, SearchBudget.unlimited(), 0, SearchOrder.FILE).solve();
+		SolverResult glossyFirst = new BacktrackingSolver(2, customers, 1, SearchBudget.unlimited(), 0, SearchOrder.GLOSSY_FIRST).solve();
+
+		//The file order tries MATTE first and has to keep searching, an all GLOSSY solution can't be improved
+		assertEquals(0, glossyFirst.getSolution().getMatteCount());
+		assertEquals(3, file.getStatistics().getNodes());
+		assertEquals(2, glossyFirst.getStatistics().getNodes());
+	}
+
+	@Test
+	public void testOrderNames() {
+
+		for (SearchOrder order : SearchOrder.values()) {
+			assertEquals(order, SearchOrder.fromName(order.getName()));
+		}
+		assertNull(SearchOrder.fromName("random"));
+	}
+}
@@ -0,0 +1,77 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import paintshop.model.Customer;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestSolutionCache {
+
+	@Test
+	public void testKeyIgnoresOrderAndRepetitions() {
+
+		BatchKey key = BatchKey.of(3, customers("2 1 0 2 1", "1 3 1"));
+
+		assertEquals(key, BatchKey.of(3, customers("1 3 1", "2 2 1 1 0", "1 3 1")));
+		assertEquals(key, BatchKey.of(3, customers("1 3 1", "3 2 1 1 0 2 1")));
+		assertEquals(key.hashCode(), BatchKey.of(3, customers("1 3 1", "2 2 1 1 0")).hashCode());
+		assertNotEquals(key, BatchKey.of(4, customers("2 1 0 2 1", "1 3 1")));
+		assertNotEquals(key, BatchKey.of(3, customers("2 1 0 2 1", "1 3 0")));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedSolutionIsEvicted() {
+
+		SolutionCache cache = new SolutionCache(2);
+		Assignment first = new Assignment(1);
+		BatchKey firstKey = BatchKey.of(1, customers("1 1 0"));
+		BatchKey secondKey = BatchKey.of(1, customers("1 1 1"));
+		BatchKey impossibleKey = BatchKey.of(1, customers("1 1 1", "1 1 0"));
+
+		assertSame(first, cache.getOrSolve(firstKey, () -> optimal(first)).getSolution());
+		cache.getOrSolve(secondKey, () -> optimal(new Assignment(1)));
+		assertSame(first, cache.getOrSolve(firstKey, () -> optimal(new Assignment(1))).getSolution());
+		assertNull(cache.getOrSolve(impossibleKey, () -> new SolverResult(null, SolutionStatus.IMPOSSIBLE)).getSolution());
+		assertNull(cache.getOrSolve(impossibleKey, () -> optimal(new Assignment(1))).getSolution());
+		assertSame(first, cache.getOrSolve(firstKey, () -> optimal(new Assignment(1))).getSolution());
+
+		assertEquals(2, cache.size());
+		assertEquals(3, cache.getHits());
+		assertEquals(3, cache.getMisses());
+
+		//The second key was evicted by the impossible one
+		cache.getOrSolve(secondKey, () -> optimal(new Assignment(1)));
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	public void testResultsNotProvenAreNotCached() {
+
+		SolutionCache cache = new SolutionCache(2);
+		BatchKey key = BatchKey.of(1, customers("1 1 0"));
+
+		cache.getOrSolve(key, () -> new SolverResult(null, SolutionStatus.UNKNOWN));
+		assertEquals(SolutionStatus.OPTIMAL, cache.getOrSolve(key, () -> optimal(new Assignment(1))).getStatus());
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	private static SolverResult optimal(final Assignment solution) {
+		return new SolverResult(solution, SolutionStatus.OPTIMAL);
+	}
+
+	private static List<Customer> customers(final String... preferences) {
+		return Arrays.asList(Arrays.stream(preferences).map(Customer::new).toArray(Customer[]::new));
+	}
+}
@@ -0,0 +1,91 @@
+package paintshop.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import paintshop.exceptions.SolverException;
+import paintshop.model.Customer;
+import paintshop.model.PaintBatch;
+
+/**
+ * @author danielaguado
+ *
+ */
+public class TestSolverSelector {
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@Test
+	public void testSelectsTheEngineFromTheFeatures() {
+
+		List<Customer> singleMatte = Arrays.asList(new Customer("2 1 1 2 0"), new Customer("1 2 1"));
+		List<Customer> small = Arrays.asList(new Customer("2 1 1 2 1"), new Customer("2 2 1 3 1"));
+		List<Customer> large = new ArrayList<>();
+		for (int colour = 1; colour < 100; colour++) {
+			large.add(new Customer("2 " + colour + " 1 " + (colour + 1) + " 1"));
+		}
+
+		assertEquals(SolverEngine.LINEAR, SolverSelector.select(3, singleMatte));
+		assertEquals(SolverEngine.BACKTRACKING, SolverSelector.select(3, small));
+		assertEquals(SolverEngine.CDCL, SolverSelector.select(100, large));
+	}
+
+	@Test
+	public void testEveryEngineFindsTheSameNumberOfMatteColours() {
+
+		Random random = new Random(23);
+		for (int run = 0; run < 100; run++) {
+			int numColours = 5 + random.nextInt(15);
+			List<Customer> customers = RandomBatches.customers(random, numColours, 5 + random.nextInt(25), 3, 2.0 / 3);
+
+			SolverResult expected = SolverEngine.BACKTRACKING.solve(numColours, customers, 1, SearchBudget.unlimited(), SearchOrder.FILE);
+			for (SolverEngine engine : Arrays.asList(SolverEngine.AUTO, SolverEngine.CDCL)) {
+				SolverResult result = engine.solve(numColours, customers, 1, SearchBudget.unlimited(), SearchOrder.FILE);
+				assertEquals(expected.getStatus(), result.getStatus());
+				if (expected.getSolution() != null) {
+					assertEquals(expected.getSolution().getMatteCount(), result.getSolution().getMatteCount());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testForcedEngineOnABatch() {
+
+		PaintBatch batch = new PaintBatch(3);
+		batch.addCustomer("2 1 1 2 1");
+		batch.addCustomer("1 1 0");
+		batch.addCustomer("2 3 0 2 0");
+		batch.setSolver(SolverEngine.CDCL);
+
+		assertEquals("0 1 0", batch.mixColours());
+	}
+
+	@Test
+	public void testLinearEngineWithSeveralMattePreferences() {
+
+		exception.expect(SolverException.class);
+		exception.expectMessage("The linear solver only supports batches where every customer likes at most one MATTE colour");
+
+		SolverEngine.LINEAR.solve(3, Arrays.asList(new Customer("2 1 1 2 1")), 1, SearchBudget.unlimited(), SearchOrder.FILE);
+	}
+
+	@Test
+	public void testEngineNames() {
+
+		for (SolverEngine engine : SolverEngine.values()) {
+			assertEquals(engine, SolverEngine.fromName(engine.getName()));
+		}
+		assertNull(SolverEngine.fromName("simplex"));
+	}
+}